@@ -0,0 +1,28 @@
+package com.kaasa.unitycodegen.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the JMH benchmarks, writing the results as JSON to <code>jmh-result.json</code> unless another result
+ * format or file is given, so that results of different commits can be compared by tools.
+ *
+ * All JMH options are supported, e.g. <code>java -jar target/benchmarks.jar Naming -p modelCount=1000</code>.
+ */
+public class BenchmarkMain {
+    public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<String>(Arrays.asList(args));
+        if (!options.contains("-rf")) {
+            options.add("-rf");
+            options.add("json");
+        }
+        if (!options.contains("-rff")) {
+            options.add("-rff");
+            options.add(DEFAULT_RESULT_FILE);
+        }
+        org.openjdk.jmh.Main.main(options.toArray(new String[options.size()]));
+    }
+}
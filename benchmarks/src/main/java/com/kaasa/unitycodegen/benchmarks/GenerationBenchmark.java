@@ -0,0 +1,47 @@
+package com.kaasa.unitycodegen.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end generation of a synthetic spec into an empty folder, serially and with one thread per processor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn" })
+public class GenerationBenchmark {
+    @Param({ "100", "1000", "10000" })
+    public int modelCount;
+
+    /** Generation threads, 0 for one per available processor. */
+    @Param({ "1", "0" })
+    public int threads;
+
+    File outputDir;
+    GeneratorFixture fixture;
+
+    @Setup(Level.Invocation)
+    public void setUp() throws IOException {
+        outputDir = new File("target/benchmark-output/generation-" + modelCount + "-" + threads);
+        FileUtils.deleteDirectory(outputDir);
+        fixture = new GeneratorFixture(modelCount, outputDir, threads);
+    }
+
+    @Benchmark
+    public List<File> generate() {
+        return fixture.generate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(outputDir);
+    }
+}
@@ -0,0 +1,128 @@
+package com.kaasa.unitycodegen.benchmarks;
+
+import com.kaasa.unitycodegen.UnityClientGenerator;
+import com.kaasa.unitycodegen.UnityGenerator;
+import io.swagger.codegen.ClientOptInput;
+import io.swagger.codegen.ClientOpts;
+import io.swagger.codegen.CodegenConstants;
+import io.swagger.codegen.CodegenModel;
+import io.swagger.codegen.CodegenOperation;
+import io.swagger.codegen.InlineModelResolver;
+import io.swagger.models.ComposedModel;
+import io.swagger.models.Model;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A configured generator for a synthetic spec, exposing the individual generation steps so that they can be
+ * measured in isolation. Each fixture holds a fresh {@link UnityGenerator}, as running the generator changes it.
+ */
+class GeneratorFixture extends UnityClientGenerator {
+    final UnityGenerator codegen = new UnityGenerator();
+
+    GeneratorFixture(int modelCount, File outputDir, int threads) {
+        codegen.setOutputDir(outputDir.getAbsolutePath());
+        // a fixed GUID keeps the output of all runs identical
+        codegen.additionalProperties().put(CodegenConstants.OPTIONAL_PROJECT_GUID,
+                "{5C4D3B2A-1F0E-4D3C-9B8A-7F6E5D4C3B2A}");
+        codegen.additionalProperties().put(UnityGenerator.GENERATION_THREADS, threads);
+        opts(new ClientOptInput().config(codegen).opts(new ClientOpts()).swagger(SyntheticSpec.swagger(modelCount)));
+    }
+
+    /**
+     * Applies the options and flattens inline models, as done by {@link #generate()} before processing models.
+     */
+    GeneratorFixture prepare() {
+        configureGeneratorProperties();
+        configureSwaggerInfo();
+        new InlineModelResolver().flatten(swagger);
+        return this;
+    }
+
+    /**
+     * Starts a new generation run of the codegen, dropping state kept for the duration of a run.
+     */
+    void startRun() {
+        codegen.preprocessSwagger(swagger);
+    }
+
+    Map<String, Model> definitions() {
+        return swagger.getDefinitions();
+    }
+
+    /**
+     * Names of the models extending another model, deepest inheritance chains included.
+     */
+    List<String> childModelNames() {
+        List<String> names = new ArrayList<String>();
+        for (Map.Entry<String, Model> entry : definitions().entrySet()) {
+            if (entry.getValue() instanceof ComposedModel) {
+                names.add(entry.getKey());
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Runs fromModel and postProcessModels for every definition, keyed by definition name.
+     */
+    Map<String, Object> processAllModels() {
+        startRun();
+        Map<String, Object> processed = new TreeMap<String, Object>();
+        for (Map.Entry<String, Model> entry : definitions().entrySet()) {
+            processed.put(entry.getKey(), processModels(codegen,
+                    Collections.singletonMap(entry.getKey(), entry.getValue()), definitions()));
+        }
+        return processed;
+    }
+
+    /**
+     * @return The model template data of all processed models, as passed to operations and supporting files.
+     */
+    @SuppressWarnings("unchecked")
+    static List<Object> allModels(Map<String, Object> processedModels) {
+        List<Object> allModels = new ArrayList<Object>();
+        for (Object models : processedModels.values()) {
+            allModels.add(((List<Object>) ((Map<String, Object>) models).get("models")).get(0));
+        }
+        return allModels;
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<CodegenModel> codegenModels(Map<String, Object> processedModels) {
+        List<CodegenModel> codegenModels = new ArrayList<CodegenModel>();
+        for (Object model : allModels(processedModels)) {
+            codegenModels.add((CodegenModel) ((Map<String, Object>) model).get("model"));
+        }
+        return codegenModels;
+    }
+
+    /**
+     * @return The operation ids as given in the spec.
+     */
+    List<String> operationIds() {
+        List<String> operationIds = new ArrayList<String>();
+        for (Path path : swagger.getPaths().values()) {
+            for (Operation operation : path.getOperations()) {
+                operationIds.add(operation.getOperationId());
+            }
+        }
+        return operationIds;
+    }
+
+    Map<String, List<CodegenOperation>> paths() {
+        return processPaths(swagger.getPaths());
+    }
+
+    Map<String, Object> processOperations(String tag, List<CodegenOperation> ops, List<Object> allModels) {
+        return processOperations(codegen, tag, ops, allModels);
+    }
+}
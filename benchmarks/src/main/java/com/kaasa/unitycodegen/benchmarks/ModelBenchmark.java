@@ -0,0 +1,63 @@
+package com.kaasa.unitycodegen.benchmarks;
+
+import io.swagger.models.Model;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Model processing: fromModel over every child of the deep inheritance chains, and the cross-model
+ * postProcessAllModels pass resolving enum references.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn" })
+public class ModelBenchmark {
+    @Param({ "100", "1000", "10000" })
+    public int modelCount;
+
+    GeneratorFixture fixture;
+    Map<String, Model> definitions;
+    List<String> childModels;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new GeneratorFixture(modelCount, new File("target/benchmark-output"), 1).prepare();
+        definitions = fixture.definitions();
+        childModels = fixture.childModelNames();
+    }
+
+    @Benchmark
+    public void fromModelWithInheritance(Blackhole blackhole) {
+        // a new generation run, so that parent models are not reused across invocations
+        fixture.startRun();
+        for (String name : childModels) {
+            blackhole.consume(fixture.codegen.fromModel(name, definitions.get(name), definitions));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> postProcessAllModels(ProcessedModels processed) {
+        return fixture.codegen.postProcessAllModels(processed.models);
+    }
+
+    /**
+     * postProcessAllModels changes the models in place, so every invocation gets freshly processed ones.
+     */
+    @State(Scope.Thread)
+    public static class ProcessedModels {
+        Map<String, Object> models;
+
+        @Setup(Level.Invocation)
+        public void setUp(ModelBenchmark benchmark) {
+            models = benchmark.fixture.processAllModels();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.kaasa.unitycodegen.benchmarks;
+
+import com.kaasa.unitycodegen.UnityGenerator;
+import io.swagger.codegen.CodegenModel;
+import io.swagger.codegen.CodegenOperation;
+import io.swagger.codegen.CodegenParameter;
+import io.swagger.codegen.CodegenProperty;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Naming functions and pattern post processing, applied to every name and pattern of the spec once per operation,
+ * the way the generator converts the same names over and over for models, properties, parameters and imports.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn" })
+public class NamingBenchmark {
+    @Param({ "100", "1000", "10000" })
+    public int modelCount;
+
+    UnityGenerator codegen;
+    List<String> modelNames;
+    List<String> propertyNames;
+    List<String> parameterNames;
+    List<String> operationIds;
+    List<String[]> enumValues;
+    List<String> patterns;
+    Map<String, Object> vendorExtensions = new HashMap<String, Object>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GeneratorFixture fixture = new GeneratorFixture(modelCount, new File("target/benchmark-output"), 1).prepare();
+        codegen = fixture.codegen;
+        modelNames = new ArrayList<String>(fixture.definitions().keySet());
+
+        Set<String> properties = new LinkedHashSet<String>();
+        Set<String> patternSet = new LinkedHashSet<String>();
+        Set<List<String>> enums = new LinkedHashSet<List<String>>();
+        for (CodegenModel model : GeneratorFixture.codegenModels(fixture.processAllModels())) {
+            for (CodegenProperty var : model.allVars) {
+                properties.add(var.baseName);
+                if (var.pattern != null) {
+                    patternSet.add(var.pattern);
+                }
+                if (var._enum != null) {
+                    for (String value : var._enum) {
+                        enums.add(Arrays.asList(value, var.datatype));
+                    }
+                }
+            }
+        }
+        propertyNames = new ArrayList<String>(properties);
+        patterns = new ArrayList<String>(patternSet);
+        enumValues = new ArrayList<String[]>();
+        for (List<String> value : enums) {
+            enumValues.add(value.toArray(new String[2]));
+        }
+
+        Set<String> parameters = new LinkedHashSet<String>();
+        for (List<CodegenOperation> ops : fixture.paths().values()) {
+            for (CodegenOperation op : ops) {
+                for (CodegenParameter param : op.allParams) {
+                    parameters.add(param.baseName);
+                }
+            }
+        }
+        parameterNames = new ArrayList<String>(parameters);
+        operationIds = fixture.operationIds();
+    }
+
+    @Benchmark
+    public void toModelName(Blackhole blackhole) {
+        for (String name : modelNames) {
+            blackhole.consume(codegen.toModelName(name));
+        }
+    }
+
+    @Benchmark
+    public void toVarName(Blackhole blackhole) {
+        for (String name : propertyNames) {
+            blackhole.consume(codegen.toVarName(name));
+        }
+    }
+
+    @Benchmark
+    public void toParamName(Blackhole blackhole) {
+        for (String name : parameterNames) {
+            blackhole.consume(codegen.toParamName(name));
+        }
+    }
+
+    @Benchmark
+    public void toOperationId(Blackhole blackhole) {
+        for (String operationId : operationIds) {
+            blackhole.consume(codegen.toOperationId(operationId));
+        }
+    }
+
+    @Benchmark
+    public void toEnumVarName(Blackhole blackhole) {
+        for (String[] value : enumValues) {
+            blackhole.consume(codegen.toEnumVarName(value[0], value[1]));
+        }
+    }
+
+    @Benchmark
+    public void postProcessPattern(Blackhole blackhole) {
+        for (String pattern : patterns) {
+            codegen.postProcessPattern(pattern, vendorExtensions);
+        }
+        blackhole.consume(vendorExtensions);
+    }
+}
@@ -0,0 +1,55 @@
+package com.kaasa.unitycodegen.benchmarks;
+
+import io.swagger.codegen.CodegenOperation;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operation processing of all API groups: processOperations, including postProcessOperations and
+ * postProcessOperationsWithModels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn" })
+public class OperationBenchmark {
+    @Param({ "100", "1000", "10000" })
+    public int modelCount;
+
+    GeneratorFixture fixture;
+    List<Object> allModels;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new GeneratorFixture(modelCount, new File("target/benchmark-output"), 1).prepare();
+        allModels = GeneratorFixture
+                .allModels(fixture.codegen.postProcessAllModels(fixture.processAllModels()));
+    }
+
+    @Benchmark
+    public void postProcessOperations(Paths paths, Blackhole blackhole) {
+        for (Map.Entry<String, List<CodegenOperation>> entry : paths.operations.entrySet()) {
+            blackhole.consume(fixture.processOperations(entry.getKey(), entry.getValue(), allModels));
+        }
+    }
+
+    /**
+     * Operations are changed in place while processed, so every invocation gets fresh ones.
+     */
+    @State(Scope.Thread)
+    public static class Paths {
+        Map<String, List<CodegenOperation>> operations;
+
+        @Setup(Level.Invocation)
+        public void setUp(OperationBenchmark benchmark) {
+            operations = benchmark.fixture.paths();
+        }
+    }
+}
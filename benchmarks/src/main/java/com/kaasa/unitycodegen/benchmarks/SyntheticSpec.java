@@ -0,0 +1,212 @@
+package com.kaasa.unitycodegen.benchmarks;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.swagger.models.Swagger;
+import io.swagger.parser.SwaggerParser;
+import io.swagger.util.Json;
+
+/**
+ * Deterministic synthetic Swagger specs shaped like large game backends: shared enum definitions, discriminator
+ * hierarchies with deep inheritance chains, inline enums, patterns, containers and a few operations per model group.
+ * The same model count always yields the same spec, so results of different commits can be compared.
+ */
+public class SyntheticSpec {
+    /** One shared enum definition per this many models. */
+    static final int MODELS_PER_ENUM = 20;
+    /** One discriminator hierarchy per this many models. */
+    static final int MODELS_PER_HIERARCHY = 50;
+    /** Maximum depth of the inheritance chains below a hierarchy base. */
+    static final int MAX_DEPTH = 6;
+    /** One path per this many models. */
+    static final int MODELS_PER_PATH = 10;
+    static final int TAGS = 20;
+
+    private SyntheticSpec() {
+    }
+
+    /**
+     * @param modelCount Number of definitions, enums and hierarchy bases included.
+     * @return The spec as JSON.
+     */
+    public static String json(int modelCount) {
+        final int enums = Math.max(1, modelCount / MODELS_PER_ENUM);
+        final int hierarchies = Math.max(1, modelCount / MODELS_PER_HIERARCHY);
+        final int models = Math.max(1, modelCount - enums - hierarchies);
+
+        ObjectNode spec = Json.mapper().createObjectNode();
+        spec.put("swagger", "2.0");
+        ObjectNode info = spec.putObject("info");
+        info.put("title", "Synthetic " + modelCount);
+        info.put("version", "1.0.0");
+        spec.put("host", "api.example.com");
+        spec.put("basePath", "/v1");
+        spec.putArray("schemes").add("https");
+        ObjectNode securityDefinitions = spec.putObject("securityDefinitions");
+        ObjectNode apiKey = securityDefinitions.putObject("api_key");
+        apiKey.put("type", "apiKey");
+        apiKey.put("name", "X-Api-Key");
+        apiKey.put("in", "header");
+
+        ObjectNode definitions = spec.putObject("definitions");
+        for (int i = 0; i < enums; i++) {
+            ObjectNode enumModel = definitions.putObject(enumName(i));
+            ArrayNode values = enumModel.putArray("enum");
+            if (i % 2 == 0) {
+                enumModel.put("type", "string");
+                for (int v = 0; v < 8; v++) {
+                    values.add("value_" + i + "_" + v);
+                }
+            } else {
+                enumModel.put("type", "integer");
+                enumModel.put("format", "int32");
+                for (int v = 0; v < 8; v++) {
+                    values.add(v * 10);
+                }
+            }
+        }
+
+        for (int h = 0; h < hierarchies; h++) {
+            ObjectNode base = definitions.putObject(baseName(h));
+            base.put("type", "object");
+            base.put("discriminator", "kind");
+            base.putArray("required").add("kind");
+            ObjectNode properties = base.putObject("properties");
+            properties.putObject("kind").put("type", "string");
+            ObjectNode id = properties.putObject("id");
+            id.put("type", "integer");
+            id.put("format", "int64");
+            properties.putObject("displayName").put("type", "string");
+            inlineEnum(properties.putObject("status"), "active", "retired", "banned");
+            properties.putObject("category").put("$ref", "#/definitions/" + enumName(h % enums));
+        }
+
+        for (int i = 0; i < models; i++) {
+            int depth = (i / hierarchies) % MAX_DEPTH;
+            String parent = depth == 0 ? baseName(i % hierarchies) : modelName(i - hierarchies);
+
+            ObjectNode own = Json.mapper().createObjectNode();
+            own.put("type", "object");
+            ObjectNode properties = own.putObject("properties");
+            ObjectNode code = properties.putObject("code_" + (i % 7));
+            code.put("type", "string");
+            code.put("pattern", "/^[A-Z]{2}-" + i + "$/i");
+            ObjectNode amount = properties.putObject("amount");
+            amount.put("type", "number");
+            amount.put("format", "double");
+            ObjectNode updatedAt = properties.putObject("updated-at");
+            updatedAt.put("type", "string");
+            updatedAt.put("format", "date-time");
+            ObjectNode related = properties.putObject("related");
+            related.put("type", "array");
+            related.putObject("items").put("$ref", "#/definitions/" + modelName((i + 1) % models));
+            ObjectNode tags = properties.putObject("tags");
+            tags.put("type", "object");
+            tags.putObject("additionalProperties").put("type", "string");
+            properties.putObject("rank").put("$ref", "#/definitions/" + enumName(i % enums));
+            // the same inline enum as the base, reconciled into the parent
+            inlineEnum(properties.putObject("status"), "active", "retired", "banned");
+            inlineEnum(properties.putObject("mode"), "mode_" + (i % 5), "default");
+
+            ObjectNode model = definitions.putObject(modelName(i));
+            ArrayNode allOf = model.putArray("allOf");
+            allOf.addObject().put("$ref", "#/definitions/" + parent);
+            allOf.add(own);
+        }
+
+        ObjectNode paths = spec.putObject("paths");
+        for (int i = 0; i < models; i += MODELS_PER_PATH) {
+            String tag = "Group" + (i / MODELS_PER_PATH % TAGS);
+            String model = modelName(i);
+
+            ObjectNode item = paths.putObject("/" + tag.toLowerCase() + "/model" + i + "/{id}");
+            ObjectNode get = operation(item.putObject("get"), tag, "get" + model, model);
+            pathId(get.putArray("parameters"));
+
+            ObjectNode put = operation(item.putObject("put"), tag, "update" + model, model);
+            put.putArray("consumes").add("application/json");
+            ArrayNode putParameters = put.putArray("parameters");
+            pathId(putParameters);
+            ObjectNode body = putParameters.addObject();
+            body.put("name", "body");
+            body.put("in", "body");
+            body.put("required", true);
+            body.putObject("schema").put("$ref", "#/definitions/" + model);
+
+            ObjectNode list = paths.putObject("/" + tag.toLowerCase() + "/model" + i);
+            ObjectNode find = list.putObject("get");
+            find.putArray("tags").add(tag);
+            find.put("operationId", "find" + model);
+            find.putArray("produces").add("application/json");
+            ArrayNode findParameters = find.putArray("parameters");
+            for (String name : new String[] { "page", "page-size" }) {
+                ObjectNode query = findParameters.addObject();
+                query.put("name", name);
+                query.put("in", "query");
+                query.put("type", "integer");
+                query.put("format", "int32");
+            }
+            ObjectNode filter = findParameters.addObject();
+            filter.put("name", "rank");
+            filter.put("in", "query");
+            filter.put("type", "array");
+            filter.putObject("items").put("type", "string");
+            ObjectNode ok = find.putObject("responses").putObject("200");
+            ok.put("description", "ok");
+            ObjectNode schema = ok.putObject("schema");
+            schema.put("type", "array");
+            schema.putObject("items").put("$ref", "#/definitions/" + model);
+            find.putArray("security").addObject().putArray("api_key");
+        }
+        return spec.toString();
+    }
+
+    /**
+     * @param modelCount Number of definitions, enums and hierarchy bases included.
+     * @return The parsed spec; every call returns a new instance.
+     */
+    public static Swagger swagger(int modelCount) {
+        return new SwaggerParser().parse(json(modelCount));
+    }
+
+    static String enumName(int i) {
+        return "SharedEnum" + i;
+    }
+
+    static String baseName(int h) {
+        return "Base" + h;
+    }
+
+    static String modelName(int i) {
+        return "Model" + i;
+    }
+
+    private static void inlineEnum(ObjectNode property, String... values) {
+        property.put("type", "string");
+        ArrayNode enumValues = property.putArray("enum");
+        for (String value : values) {
+            enumValues.add(value);
+        }
+    }
+
+    private static ObjectNode operation(ObjectNode operation, String tag, String operationId, String model) {
+        operation.putArray("tags").add(tag);
+        operation.put("operationId", operationId);
+        operation.put("summary", operationId + " on " + model);
+        operation.putArray("produces").add("application/json");
+        ObjectNode ok = operation.putObject("responses").putObject("200");
+        ok.put("description", "ok");
+        ok.putObject("schema").put("$ref", "#/definitions/" + model);
+        operation.putArray("security").addObject().putArray("api_key");
+        return operation;
+    }
+
+    private static void pathId(ArrayNode parameters) {
+        ObjectNode id = parameters.addObject();
+        id.put("name", "id");
+        id.put("in", "path");
+        id.put("required", true);
+        id.put("type", "integer");
+        id.put("format", "int64");
+    }
+}
@@ -9,6 +9,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.*;
+import java.util.regex.Pattern;
 
 public abstract class AbstractCSharpCodegen extends DefaultCodegen implements CodegenConfig {
 
@@ -45,6 +46,25 @@ public abstract class AbstractCSharpCodegen extends DefaultCodegen implements Co
 
     protected Logger LOGGER = LoggerFactory.getLogger(AbstractCSharpCodegen.class);
 
+    protected static final Pattern STARTS_WITH_DIGIT = Pattern.compile("^\\d.*");
+    protected static final Pattern UPPER_CASE_NAME = Pattern.compile("^[A-Z_]*$");
+    private static final Pattern LEADING_UNDERSCORE = Pattern.compile("^_");
+    private static final Pattern TRAILING_UNDERSCORE = Pattern.compile("_$");
+    private static final Pattern DASH = Pattern.compile("-");
+
+    // camelize and underscore only depend on their input, so their results are shared by all instances
+    private static final NameCache CAMELIZED_NAMES = new NameCache();
+    private static final NameCache LOWER_CAMELIZED_NAMES = new NameCache();
+    private static final NameCache UNDERSCORED_NAMES = new NameCache();
+
+    // names depending on the generator options, cleared by clearNameCaches() when they change
+    protected final NameCache sanitizedNames = new NameCache();
+    protected final NameCache modelNames = new NameCache();
+    protected final NameCache varNames = new NameCache();
+    protected final NameCache paramNames = new NameCache();
+    protected final NameCache operationIds = new NameCache();
+    protected final NameCache enumVarNames = new NameCache();
+
     public AbstractCSharpCodegen() {
         super();
 
@@ -278,6 +298,68 @@ public abstract class AbstractCSharpCodegen extends DefaultCodegen implements Co
 
         // This either updates additionalProperties with the above fixes, or sets the default if the option was not specified.
         additionalProperties.put(CodegenConstants.INTERFACE_PREFIX, interfacePrefix);
+
+        // reserved words and naming options may have changed
+        clearNameCaches();
+    }
+
+    /**
+     * Drops all memoized names. Must be called when an option the naming methods depend on changes.
+     */
+    protected void clearNameCaches() {
+        sanitizedNames.clear();
+        modelNames.clear();
+        varNames.clear();
+        paramNames.clear();
+        operationIds.clear();
+        enumVarNames.clear();
+    }
+
+    @Override
+    public void setModelNamePrefix(String modelNamePrefix) {
+        super.setModelNamePrefix(modelNamePrefix);
+        clearNameCaches();
+    }
+
+    @Override
+    public void setModelNameSuffix(String modelNameSuffix) {
+        super.setModelNameSuffix(modelNameSuffix);
+        clearNameCaches();
+    }
+
+    @Override
+    public void setAllowUnicodeIdentifiers(Boolean allowUnicodeIdentifiers) {
+        super.setAllowUnicodeIdentifiers(allowUnicodeIdentifiers);
+        clearNameCaches();
+    }
+
+    /**
+     * Memoized {@link DefaultCodegen#camelize(String)}, hiding it for this class and its subclasses.
+     */
+    public static String camelize(String word) {
+        return CAMELIZED_NAMES.get(word, DefaultCodegen::camelize);
+    }
+
+    /**
+     * Memoized {@link DefaultCodegen#camelize(String, boolean)}, hiding it for this class and its subclasses.
+     */
+    public static String camelize(String word, boolean lowercaseFirstLetter) {
+        if (lowercaseFirstLetter) {
+            return LOWER_CAMELIZED_NAMES.get(word, w -> DefaultCodegen.camelize(w, true));
+        }
+        return camelize(word);
+    }
+
+    /**
+     * Memoized {@link DefaultCodegen#underscore(String)}, hiding it for this class and its subclasses.
+     */
+    public static String underscore(String word) {
+        return UNDERSCORED_NAMES.get(word, DefaultCodegen::underscore);
+    }
+
+    @Override
+    public String sanitizeName(String name) {
+        return sanitizedNames.get(name, super::sanitizeName);
     }
 
     @Override
@@ -286,6 +368,7 @@ public abstract class AbstractCSharpCodegen extends DefaultCodegen implements Co
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public Map<String, Object> postProcessModels(Map<String, Object> objs) {
         List<Object> models = (List<Object>) objs.get("models");
         for (Object _mo : models) {
@@ -328,87 +411,126 @@ public abstract class AbstractCSharpCodegen extends DefaultCodegen implements Co
      */
     @SuppressWarnings({ "unchecked" })
     private void postProcessEnumRefs(final Map<String, Object> models) {
-        Map<String, CodegenModel> enumRefs = new HashMap<String, CodegenModel>();
-        for (Map.Entry<String, Object> entry : models.entrySet()) {
-            CodegenModel model = ModelUtils.getModelByName(entry.getKey(), models);
-            if (model.isEnum) {
-                enumRefs.put(entry.getKey(), model);
+        // index models by name, in processing order, and the enum models among them
+        final List<CodegenModel> orderedModels = new ArrayList<CodegenModel>(models.size());
+        final Map<String, CodegenModel> enumRefs = new HashMap<String, CodegenModel>();
+        final Map<String, Integer> enumPositions = new HashMap<String, Integer>();
+        for (String swaggerName : models.keySet()) {
+            CodegenModel model = ModelUtils.getModelByName(swaggerName, models);
+            if (model == null) {
+                LOGGER.warn(
+                        "Expected to retrieve model %s by name, but no model was found. Check your -Dmodels inclusions.",
+                        swaggerName);
+            } else if (model.isEnum) {
+                enumRefs.put(swaggerName, model);
+                enumPositions.put(swaggerName, orderedModels.size());
             }
+            orderedModels.add(model);
+        }
+        if (enumRefs.isEmpty()) {
+            return;
         }
 
-        for (Map.Entry<String, Object> entry : models.entrySet()) {
-            String swaggerName = entry.getKey();
-            CodegenModel model = ModelUtils.getModelByName(swaggerName, models);
-            if (model != null) {
-                for (CodegenProperty var : model.allVars) {
-                    if (enumRefs.containsKey(var.datatype)) {
-                        // Handle any enum properties referred to by $ref.
-                        // This is different in C# than most other generators, because enums in C# are compiled to integral types,
-                        // while enums in many other languages are true objects.
-                        CodegenModel refModel = enumRefs.get(var.datatype);
-                        var.allowableValues = refModel.allowableValues;
-                        var.isEnum = true;
-
-                        updateCodegenPropertyEnum(var);
-
-                        // We do these after updateCodegenPropertyEnum to avoid generalities that don't mesh with C#.
-                        var.isPrimitiveType = true;
+        // index the vars referring to enum models by datatype, remembering which model they belong to
+        final Map<String, List<EnumRef>> varsByDatatype = new HashMap<String, List<EnumRef>>();
+        for (int position = 0; position < orderedModels.size(); position++) {
+            CodegenModel model = orderedModels.get(position);
+            if (model == null) {
+                continue;
+            }
+            for (CodegenProperty var : model.allVars) {
+                if (enumRefs.containsKey(var.datatype)) {
+                    List<EnumRef> vars = varsByDatatype.get(var.datatype);
+                    if (vars == null) {
+                        vars = new ArrayList<EnumRef>();
+                        varsByDatatype.put(var.datatype, vars);
                     }
+                    vars.add(new EnumRef(var, position));
                 }
+            }
+        }
 
-                // We're looping all models here.
-                if (model.isEnum) {
-                    // We now need to make allowableValues.enumVars look like the context of CodegenProperty
-                    Boolean isString = false;
-                    Boolean isInteger = false;
-                    Boolean isLong = false;
-                    Boolean isByte = false;
-
-                    if (model.dataType.startsWith("byte")) {
-                        // C# Actually supports byte and short enums, swagger spec only supports byte.
-                        isByte = true;
-                        model.vendorExtensions.put("x-enum-byte", true);
-                    } else if (model.dataType.startsWith("int32")) {
-                        isInteger = true;
-                        model.vendorExtensions.put("x-enum-integer", true);
-                    } else if (model.dataType.startsWith("int64")) {
-                        isLong = true;
-                        model.vendorExtensions.put("x-enum-long", true);
-                    } else {
-                        // C# doesn't support non-integral enums, so we need to treat everything else as strings (e.g. to not lose precision or data integrity)
-                        isString = true;
-                        model.vendorExtensions.put("x-enum-string", true);
-                    }
-
-                    // Since we iterate enumVars for modelnnerEnum and enumClass templates, and CodegenModel is missing some of CodegenProperty's properties,
-                    // we can take advantage of Mustache's contextual lookup to add the same "properties" to the model's enumVars scope rather than CodegenProperty's scope.
-                    List<Map<String, String>> enumVars = (ArrayList<Map<String, String>>) model.allowableValues
-                            .get("enumVars");
-                    List<Map<String, Object>> newEnumVars = new ArrayList<Map<String, Object>>();
-                    for (Map<String, String> enumVar : enumVars) {
-                        Map<String, Object> mixedVars = new HashMap<String, Object>();
-                        mixedVars.putAll(enumVar);
-
-                        mixedVars.put("isString", isString);
-                        mixedVars.put("isLong", isLong);
-                        mixedVars.put("isInteger", isInteger);
-                        mixedVars.put("isByte", isByte);
-
-                        newEnumVars.add(mixedVars);
-                    }
+        for (Map.Entry<String, CodegenModel> entry : enumRefs.entrySet()) {
+            CodegenModel refModel = entry.getValue();
+            int enumPosition = enumPositions.get(entry.getKey());
+            List<EnumRef> vars = varsByDatatype.get(entry.getKey());
+            if (vars == null) {
+                vars = Collections.emptyList();
+            }
 
-                    if (!newEnumVars.isEmpty()) {
-                        model.allowableValues.put("enumVars", newEnumVars);
-                    }
-                }
-            } else {
-                LOGGER.warn(
-                        "Expected to retrieve model %s by name, but no model was found. Check your -Dmodels inclusions.",
-                        swaggerName);
+            // Vars share the enum model's allowableValues, whose enumVars are rewritten both by
+            // updateCodegenPropertyEnum and below, so keep the order of a pass over all models:
+            // vars of models up to the enum model first, then the enum model, then the remaining vars.
+            int next = 0;
+            while (next < vars.size() && vars.get(next).position <= enumPosition) {
+                updateEnumRef(vars.get(next++).var, refModel);
+            }
+            updateEnumModel(refModel);
+            while (next < vars.size()) {
+                updateEnumRef(vars.get(next++).var, refModel);
             }
         }
     }
 
+    private void updateEnumRef(CodegenProperty var, CodegenModel refModel) {
+        // Handle any enum properties referred to by $ref.
+        // This is different in C# than most other generators, because enums in C# are compiled to integral types,
+        // while enums in many other languages are true objects.
+        var.allowableValues = refModel.allowableValues;
+        var.isEnum = true;
+
+        updateCodegenPropertyEnum(var);
+
+        // We do these after updateCodegenPropertyEnum to avoid generalities that don't mesh with C#.
+        var.isPrimitiveType = true;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void updateEnumModel(CodegenModel model) {
+        // We now need to make allowableValues.enumVars look like the context of CodegenProperty
+        Boolean isString = false;
+        Boolean isInteger = false;
+        Boolean isLong = false;
+        Boolean isByte = false;
+
+        if (model.dataType.startsWith("byte")) {
+            // C# Actually supports byte and short enums, swagger spec only supports byte.
+            isByte = true;
+            model.vendorExtensions.put("x-enum-byte", true);
+        } else if (model.dataType.startsWith("int32")) {
+            isInteger = true;
+            model.vendorExtensions.put("x-enum-integer", true);
+        } else if (model.dataType.startsWith("int64")) {
+            isLong = true;
+            model.vendorExtensions.put("x-enum-long", true);
+        } else {
+            // C# doesn't support non-integral enums, so we need to treat everything else as strings (e.g. to not lose precision or data integrity)
+            isString = true;
+            model.vendorExtensions.put("x-enum-string", true);
+        }
+
+        // Since we iterate enumVars for modelnnerEnum and enumClass templates, and CodegenModel is missing some of CodegenProperty's properties,
+        // we can take advantage of Mustache's contextual lookup to add the same "properties" to the model's enumVars scope rather than CodegenProperty's scope.
+        // The enumVars maps are only referenced through allowableValues, so the flags are added in place.
+        List<Map> enumVars = (List<Map>) model.allowableValues.get("enumVars");
+        for (Map enumVar : enumVars) {
+            enumVar.put("isString", isString);
+            enumVar.put("isLong", isLong);
+            enumVar.put("isInteger", isInteger);
+            enumVar.put("isByte", isByte);
+        }
+    }
+
+    private static class EnumRef {
+        final CodegenProperty var;
+        final int position;
+
+        EnumRef(CodegenProperty var, int position) {
+            this.var = var;
+            this.position = position;
+        }
+    }
+
     /**
      * Update codegen property's enum by adding "enumVars" (with name and value)
      *
@@ -446,6 +568,7 @@ public abstract class AbstractCSharpCodegen extends DefaultCodegen implements Co
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public Map<String, Object> postProcessOperations(Map<String, Object> objs) {
         super.postProcessOperations(objs);
         if (objs != null) {
@@ -529,6 +652,10 @@ public abstract class AbstractCSharpCodegen extends DefaultCodegen implements Co
             throw new RuntimeException("Empty method name (operationId) not allowed");
         }
 
+        return operationIds.get(operationId, this::convertOperationId);
+    }
+
+    protected String convertOperationId(String operationId) {
         // method name cannot use reserved keyword, e.g. return
         if (isReservedWord(operationId)) {
             LOGGER.warn(operationId + " (reserved word) cannot be used as method name. Renamed to "
@@ -541,11 +668,15 @@ public abstract class AbstractCSharpCodegen extends DefaultCodegen implements Co
 
     @Override
     public String toVarName(String name) {
+        return varNames.get(name, this::convertVarName);
+    }
+
+    protected String convertVarName(String name) {
         // sanitize name
         name = sanitizeName(name);
 
         // if it's all uppper case, do nothing
-        if (name.matches("^[A-Z_]*$")) {
+        if (UPPER_CASE_NAME.matcher(name).matches()) {
             return name;
         }
 
@@ -554,7 +685,7 @@ public abstract class AbstractCSharpCodegen extends DefaultCodegen implements Co
         name = camelize(name);
 
         // for reserved word or word starting with number, append _
-        if (isReservedWord(name) || name.matches("^\\d.*")) {
+        if (isReservedWord(name) || STARTS_WITH_DIGIT.matcher(name).matches()) {
             name = escapeReservedWord(name);
         }
 
@@ -563,14 +694,18 @@ public abstract class AbstractCSharpCodegen extends DefaultCodegen implements Co
 
     @Override
     public String toParamName(String name) {
+        return paramNames.get(name, this::convertParamName);
+    }
+
+    protected String convertParamName(String name) {
         // sanitize name
         name = sanitizeName(name);
 
         // replace - with _ e.g. created-at => created_at
-        name = name.replaceAll("-", "_");
+        name = DASH.matcher(name).replaceAll("_");
 
         // if it's all uppper case, do nothing
-        if (name.matches("^[A-Z_]*$")) {
+        if (UPPER_CASE_NAME.matcher(name).matches()) {
             return name;
         }
 
@@ -579,7 +714,7 @@ public abstract class AbstractCSharpCodegen extends DefaultCodegen implements Co
         name = camelize(name, true);
 
         // for reserved word or word starting with number, append _
-        if (isReservedWord(name) || name.matches("^\\d.*")) {
+        if (isReservedWord(name) || STARTS_WITH_DIGIT.matcher(name).matches()) {
             name = escapeReservedWord(name);
         }
 
@@ -737,6 +872,10 @@ public abstract class AbstractCSharpCodegen extends DefaultCodegen implements Co
         if (importMapping.containsKey(name)) {
             return importMapping.get(name);
         }
+        return modelNames.get(name, this::convertModelName);
+    }
+
+    protected String convertModelName(String name) {
         if (!StringUtils.isEmpty(modelNamePrefix)) {
             name = modelNamePrefix + "_" + name;
         }
@@ -755,7 +894,7 @@ public abstract class AbstractCSharpCodegen extends DefaultCodegen implements Co
         }
 
         // model name starts with number
-        if (name.matches("^\\d.*")) {
+        if (STARTS_WITH_DIGIT.matcher(name).matches()) {
             LOGGER.warn(name + " (model name starts with number) cannot be used as model name. Renamed to "
                     + camelize("model_" + name));
             name = "model_" + name; // e.g. 200Response => Model200Response (after camelize)
@@ -856,12 +995,12 @@ public abstract class AbstractCSharpCodegen extends DefaultCodegen implements Co
 
         String enumName = sanitizeName(name);
 
-        enumName = enumName.replaceFirst("^_", "");
-        enumName = enumName.replaceFirst("_$", "");
+        enumName = LEADING_UNDERSCORE.matcher(enumName).replaceFirst("");
+        enumName = TRAILING_UNDERSCORE.matcher(enumName).replaceFirst("");
 
         enumName = camelize(enumName) + "Enum";
 
-        if (enumName.matches("\\d.*")) { // starts with number
+        if (STARTS_WITH_DIGIT.matcher(enumName).matches()) { // starts with number
             return "_" + enumName;
         } else {
             return enumName;
@@ -0,0 +1,112 @@
+package com.kaasa.unitycodegen;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Flight Recorder event of a {@link GenerationMetrics.Sample}.
+ *
+ * The event type is defined at runtime with <code>jdk.jfr.EventFactory</code> and driven by reflection, so that the
+ * generator neither compiles against nor requires Flight Recorder, which Java 8 JVMs mostly lack.
+ */
+final class GenerationEvent {
+    private static final String JFR = "jdk.jfr.";
+
+    private static final GenerationEvent TYPE = define();
+
+    private final Object factory;
+    private final Method newEvent;
+    private final Method begin;
+    private final Method end;
+    private final Method shouldCommit;
+    private final Method set;
+    private final Method commit;
+
+    private GenerationEvent(Object factory) throws ReflectiveOperationException {
+        Class<?> event = Class.forName(JFR + "Event");
+        this.factory = factory;
+        this.newEvent = factory.getClass().getMethod("newEvent");
+        this.begin = event.getMethod("begin");
+        this.end = event.getMethod("end");
+        this.shouldCommit = event.getMethod("shouldCommit");
+        this.set = event.getMethod("set", int.class, Object.class);
+        this.commit = event.getMethod("commit");
+    }
+
+    /**
+     * @return The event type, or null if the JVM has no Flight Recorder.
+     */
+    static GenerationEvent type() {
+        return TYPE;
+    }
+
+    private static GenerationEvent define() {
+        try {
+            List<Object> annotations = Arrays.asList(
+                    annotation("Name", "com.kaasa.unitycodegen.Generation"),
+                    annotation("Label", "Unity Code Generation"),
+                    annotation("Category", new String[] { "Swagger Codegen" }),
+                    annotation("Description", "A phase, template, partial, model or operation of a Unity client "
+                            + "generation run"));
+            List<Object> fields = Arrays.asList(
+                    field(String.class, "kind", annotation("Label", "Kind")),
+                    field(String.class, "name", annotation("Label", "Name")),
+                    field(long.class, "allocatedBytes", annotation("Label", "Allocated"), annotation("DataAmount", "BYTES")));
+            Class<?> eventFactory = Class.forName(JFR + "EventFactory");
+            Object factory = eventFactory.getMethod("create", List.class, List.class).invoke(null, annotations, fields);
+            return new GenerationEvent(factory);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static Object annotation(String type, Object value) throws ReflectiveOperationException {
+        Class<? extends Annotation> annotationType = Class.forName(JFR + type).asSubclass(Annotation.class);
+        Constructor<?> constructor = Class.forName(JFR + "AnnotationElement").getConstructor(Class.class,
+                Object.class);
+        return constructor.newInstance(annotationType, value);
+    }
+
+    private static Object field(Class<?> type, String name, Object... annotations)
+            throws ReflectiveOperationException {
+        Class<?> valueDescriptor = Class.forName(JFR + "ValueDescriptor");
+        return valueDescriptor.getConstructor(Class.class, String.class, List.class).newInstance(type, name,
+                Collections.unmodifiableList(Arrays.asList(annotations)));
+    }
+
+    /**
+     * Creates and begins an event.
+     *
+     * @return The event, to be passed to {@link #finish(Object, String, String, long)}.
+     */
+    Object start() {
+        Object event = invoke(newEvent, factory);
+        invoke(begin, event);
+        return event;
+    }
+
+    void finish(Object event, String kind, String name, long allocatedBytes) {
+        invoke(end, event);
+        if ((Boolean) invoke(shouldCommit, event)) {
+            invoke(set, event, 0, kind);
+            invoke(set, event, 1, name);
+            invoke(set, event, 2, allocatedBytes);
+            invoke(commit, event);
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.kaasa.unitycodegen;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.swagger.util.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Keeps track of the content hash of every file written by a generation run, so that a later run can skip
+ * rewriting files whose rendered content has not changed.
+ *
+ * The manifest is stored as JSON under the output folder's <code>.swagger-codegen</code> directory and maps the
+ * output-relative path of each file to its SHA-256 hash, size and modification time. Size and modification time
+ * are recorded so that files edited or touched outside of the generator are rewritten rather than trusted.
+ */
+public class GenerationManifest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GenerationManifest.class);
+
+    public static final String MANIFEST_FILENAME = ".swagger-codegen" + File.separator + "unity-manifest.json";
+
+    private final File outputDir;
+    private final File manifestFile;
+    private final Map<String, Entry> previous;
+    // written to concurrently when generating on several threads
+    private final Map<String, Entry> current = new ConcurrentSkipListMap<String, Entry>();
+
+    protected GenerationManifest(File outputDir, Map<String, Entry> previous) {
+        this.outputDir = outputDir.getAbsoluteFile();
+        this.manifestFile = new File(this.outputDir, MANIFEST_FILENAME);
+        this.previous = previous;
+    }
+
+    /**
+     * Loads the manifest of the previous run from the given output folder. A missing or unreadable manifest
+     * results in an empty one, which causes every file to be written.
+     *
+     * @param outputDir The generation output folder.
+     * @return The manifest for the upcoming run.
+     */
+    public static GenerationManifest load(File outputDir) {
+        File manifestFile = new File(outputDir.getAbsoluteFile(), MANIFEST_FILENAME);
+        Map<String, Entry> previous = new TreeMap<String, Entry>();
+        if (manifestFile.isFile()) {
+            try {
+                Map<String, Entry> entries = Json.mapper().readValue(manifestFile,
+                        new TypeReference<TreeMap<String, Entry>>() {
+                        });
+                if (entries != null) {
+                    previous.putAll(entries);
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Could not read generation manifest {}, all files will be written: {}", manifestFile,
+                        e.getMessage());
+            }
+        }
+        return new GenerationManifest(outputDir, previous);
+    }
+
+    /**
+     * Computes the hex encoded SHA-256 hash of the given content.
+     *
+     * @param contents Rendered file content.
+     * @return The content hash.
+     */
+    public static String hash(byte[] contents) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(contents);
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+    }
+
+    /**
+     * Checks whether the file on disk already holds the content with the given hash, as recorded by the previous run.
+     * An unchanged file is carried over into this run's manifest.
+     *
+     * @param file Output file.
+     * @param hash Hash of the newly rendered content.
+     * @return True if writing the file can be skipped.
+     */
+    public boolean isUnchanged(File file, String hash) {
+        String key = relativePath(file);
+        Entry entry = previous.get(key);
+        if (entry == null || !entry.hash.equals(hash) || !file.isFile() || file.length() != entry.size
+                || file.lastModified() != entry.lastModified) {
+            return false;
+        }
+        current.put(key, entry);
+        return true;
+    }
+
+    /**
+     * Carries a file which this run does not regenerate over into this run's manifest, provided it is still the file
+     * written by the previous run.
+     *
+     * @param file Output file.
+     * @return True if the file is unchanged since the previous run.
+     */
+    public boolean retain(File file) {
+        String key = relativePath(file);
+        Entry entry = previous.get(key);
+        if (entry == null || !file.isFile() || file.length() != entry.size
+                || file.lastModified() != entry.lastModified) {
+            return false;
+        }
+        current.put(key, entry);
+        return true;
+    }
+
+    /**
+     * Records a file which has just been written.
+     *
+     * @param file Output file.
+     * @param hash Hash of the written content.
+     */
+    public void record(File file, String hash) {
+        Entry entry = new Entry();
+        entry.hash = hash;
+        entry.size = file.length();
+        entry.lastModified = file.lastModified();
+        current.put(relativePath(file), entry);
+    }
+
+    /**
+     * Writes the manifest of this run. Files which were not generated by this run are dropped from the manifest.
+     *
+     * @throws IOException if the manifest cannot be written.
+     */
+    public void save() throws IOException {
+        File parent = manifestFile.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Could not create directory " + parent);
+        }
+        Json.mapper().writerWithDefaultPrettyPrinter().writeValue(manifestFile, current);
+    }
+
+    private String relativePath(File file) {
+        return outputDir.toURI().relativize(file.getAbsoluteFile().toURI()).getPath();
+    }
+
+    /**
+     * Manifest record of a single generated file.
+     */
+    public static class Entry {
+        public String hash;
+        public long size;
+        public long lastModified;
+    }
+}
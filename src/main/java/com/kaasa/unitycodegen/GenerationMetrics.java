@@ -0,0 +1,362 @@
+package com.kaasa.unitycodegen;
+
+import io.swagger.util.Json;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wall time, call counts and allocated bytes of a generation run, per phase (spec parsing, fromModel, enum post
+ * processing, rendering, writing...), per template and per partial, plus the slowest individual models and operations.
+ *
+ * Measurements are taken with {@link Sample}s, which may nest (e.g. fromModel runs within model processing) and may
+ * be taken concurrently. Allocated bytes are those of the measuring thread, where the JVM supports it. When the
+ * JVM has Flight Recorder, every sample is also emitted as a <code>com.kaasa.unitycodegen.Generation</code> event,
+ * recorded when enabled in the JFR settings.
+ */
+public class GenerationMetrics {
+    public static final String REPORT_FILENAME = ".swagger-codegen" + File.separator + "unity-metrics.json";
+
+    public static final String PARSE = "parseSpec";
+    public static final String CONFIGURE = "configure";
+    public static final String FLATTEN = "flattenInlineModels";
+    public static final String DIFF = "diffSpec";
+    public static final String PROCESS_MODELS = "processModels";
+    public static final String FROM_MODEL = "fromModel";
+    public static final String POST_PROCESS_MODELS = "postProcessModels";
+    public static final String POST_PROCESS_ALL_MODELS = "postProcessAllModels";
+    public static final String PROCESS_PATHS = "processPaths";
+    public static final String FROM_OPERATION = "fromOperation";
+    public static final String PROCESS_OPERATIONS = "processOperations";
+    public static final String POST_PROCESS_OPERATIONS = "postProcessOperations";
+    public static final String RENDER = "render";
+    public static final String WRITE = "write";
+    public static final String SUPPORTING_FILES = "supportingFiles";
+
+    /** Number of slowest models and operations listed in the report. */
+    public static final int SLOWEST_COUNT = 10;
+
+    /** Metrics which record nothing. */
+    public static final GenerationMetrics DISABLED = new GenerationMetrics(false);
+
+    private static final GenerationEvent EVENT = GenerationEvent.type();
+
+    private final boolean enabled;
+    private final com.sun.management.ThreadMXBean allocations;
+    private final long startNanos = System.nanoTime();
+    private final ConcurrentMap<String, Stat> phases = new ConcurrentHashMap<String, Stat>();
+    private final ConcurrentMap<String, Stat> templates = new ConcurrentHashMap<String, Stat>();
+    private final ConcurrentMap<String, Stat> partials = new ConcurrentHashMap<String, Stat>();
+    private final Ranking slowestModels = new Ranking(SLOWEST_COUNT);
+    private final Ranking slowestOperations = new Ranking(SLOWEST_COUNT);
+
+    public GenerationMetrics() {
+        this(true);
+    }
+
+    private GenerationMetrics(boolean enabled) {
+        this.enabled = enabled;
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocations = null;
+        if (enabled && threads instanceof com.sun.management.ThreadMXBean) {
+            allocations = (com.sun.management.ThreadMXBean) threads;
+            if (!allocations.isThreadAllocatedMemorySupported()) {
+                allocations = null;
+            } else if (!allocations.isThreadAllocatedMemoryEnabled()) {
+                allocations.setThreadAllocatedMemoryEnabled(true);
+            }
+        }
+        this.allocations = allocations;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts measuring a generation phase.
+     *
+     * @param phase Phase name, e.g. {@link #FROM_MODEL}.
+     * @return The running sample, to be closed when the phase ends.
+     */
+    public Sample phase(String phase) {
+        return start(stat(phases, phase), null, null, "phase", phase);
+    }
+
+    /**
+     * Starts measuring the rendering of a template, accounted to the {@link #RENDER} phase as well. Templates
+     * included by it are accounted to it.
+     *
+     * @param template Template file name, e.g. <code>model.mustache</code>.
+     * @return The running sample, to be closed when the template is rendered.
+     */
+    public Sample template(String template) {
+        return start(stat(templates, template), stat(phases, RENDER), null, "template", template);
+    }
+
+    /**
+     * Starts measuring the rendering of a partial, where it is included. Its time is accounted to the including
+     * template as well.
+     *
+     * @param partial Partial name, e.g. <code>modelGeneric</code>.
+     * @return The running sample, to be closed when the partial is rendered.
+     */
+    public Sample partial(String partial) {
+        return start(stat(partials, partial), null, null, "partial", partial);
+    }
+
+    /**
+     * Starts measuring the conversion of a single model, accounted to the {@link #FROM_MODEL} phase.
+     *
+     * @param name Definition name.
+     * @return The running sample.
+     */
+    public Sample model(String name) {
+        return start(stat(phases, FROM_MODEL), null, slowestModels, "model", name);
+    }
+
+    /**
+     * Starts measuring the conversion of a single operation, accounted to the {@link #FROM_OPERATION} phase.
+     *
+     * @param name Operation name, e.g. <code>GET /pets/{id}</code>.
+     * @return The running sample.
+     */
+    public Sample operation(String name) {
+        return start(stat(phases, FROM_OPERATION), null, slowestOperations, "operation", name);
+    }
+
+    private Sample start(Stat stat, Stat total, Ranking ranking, String kind, String name) {
+        if (!enabled) {
+            return Sample.NONE;
+        }
+        return new Sample(this, stat, total, ranking, kind, name);
+    }
+
+    private static Stat stat(ConcurrentMap<String, Stat> stats, String name) {
+        Stat stat = stats.get(name);
+        if (stat == null) {
+            Stat created = new Stat();
+            stat = stats.putIfAbsent(name, created);
+            if (stat == null) {
+                stat = created;
+            }
+        }
+        return stat;
+    }
+
+    private long allocatedBytes() {
+        return allocations != null ? allocations.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    /**
+     * @return The report, as written by {@link #writeReport(File)}.
+     */
+    public Map<String, Object> report() {
+        Map<String, Object> report = new LinkedHashMap<String, Object>();
+        report.put("totalMillis", millis(System.nanoTime() - startNanos));
+        report.put("allocationsMeasured", allocations != null);
+        report.put("phases", toMap(phases));
+        report.put("templates", toMap(templates));
+        report.put("partials", toMap(partials));
+        report.put("slowestModels", slowestModels.toList());
+        report.put("slowestOperations", slowestOperations.toList());
+        return report;
+    }
+
+    /**
+     * Writes the report as JSON into the given output folder.
+     *
+     * @param outputDir The generation output folder.
+     * @return The report file.
+     * @throws IOException if the report cannot be written.
+     */
+    public File writeReport(File outputDir) throws IOException {
+        File reportFile = new File(outputDir.getAbsoluteFile(), REPORT_FILENAME);
+        File parent = reportFile.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Could not create directory " + parent);
+        }
+        Json.mapper().writerWithDefaultPrettyPrinter().writeValue(reportFile, report());
+        return reportFile;
+    }
+
+    /**
+     * @return A one line summary of the run: total time, the most expensive phases and templates, the slowest model.
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Generation took ").append(millis(System.nanoTime() - startNanos)).append(" ms");
+        appendSlowest(sb, "; phases: ", phases, 4);
+        appendSlowest(sb, "; templates: ", templates, 3);
+        List<Map<String, Object>> models = slowestModels.toList();
+        if (!models.isEmpty()) {
+            sb.append("; slowest model: ").append(models.get(0).get("name")).append(" (")
+                    .append(models.get(0).get("millis")).append(" ms)");
+        }
+        return sb.toString();
+    }
+
+    private static void appendSlowest(StringBuilder sb, String label, Map<String, Stat> stats, int count) {
+        List<Map.Entry<String, Stat>> entries = new ArrayList<Map.Entry<String, Stat>>(stats.entrySet());
+        if (entries.isEmpty()) {
+            return;
+        }
+        Collections.sort(entries, new Comparator<Map.Entry<String, Stat>>() {
+            @Override
+            public int compare(Map.Entry<String, Stat> o1, Map.Entry<String, Stat> o2) {
+                return Long.compare(o2.getValue().nanos.get(), o1.getValue().nanos.get());
+            }
+        });
+        sb.append(label);
+        for (int i = 0; i < Math.min(count, entries.size()); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(entries.get(i).getKey()).append(' ').append(millis(entries.get(i).getValue().nanos.get()))
+                    .append(" ms");
+        }
+    }
+
+    private static Map<String, Object> toMap(Map<String, Stat> stats) {
+        Map<String, Object> result = new TreeMap<String, Object>();
+        for (Map.Entry<String, Stat> entry : stats.entrySet()) {
+            Stat stat = entry.getValue();
+            Map<String, Object> values = new LinkedHashMap<String, Object>();
+            values.put("count", stat.count.get());
+            values.put("millis", millis(stat.nanos.get()));
+            values.put("allocatedBytes", stat.allocatedBytes.get());
+            result.put(entry.getKey(), values);
+        }
+        return result;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10000.0) / 100.0;
+    }
+
+    private static class Stat {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong nanos = new AtomicLong();
+        final AtomicLong allocatedBytes = new AtomicLong();
+
+        void add(long nanos, long allocatedBytes) {
+            this.count.incrementAndGet();
+            this.nanos.addAndGet(nanos);
+            this.allocatedBytes.addAndGet(allocatedBytes);
+        }
+    }
+
+    /**
+     * Keeps the given number of slowest entries.
+     */
+    private static class Ranking {
+        private final int size;
+        private final PriorityQueue<Object[]> slowest;
+
+        Ranking(int size) {
+            this.size = size;
+            // fastest first, so the head is the one to drop
+            this.slowest = new PriorityQueue<Object[]>(size + 1, new Comparator<Object[]>() {
+                @Override
+                public int compare(Object[] o1, Object[] o2) {
+                    return Long.compare((Long) o1[1], (Long) o2[1]);
+                }
+            });
+        }
+
+        synchronized void record(String name, long nanos) {
+            if (slowest.size() < size || (Long) slowest.peek()[1] < nanos) {
+                slowest.add(new Object[] { name, nanos });
+                if (slowest.size() > size) {
+                    slowest.poll();
+                }
+            }
+        }
+
+        synchronized List<Map<String, Object>> toList() {
+            List<Object[]> entries = new ArrayList<Object[]>(slowest);
+            Collections.sort(entries, Collections.reverseOrder(slowest.comparator()));
+            List<Map<String, Object>> result = new ArrayList<Map<String, Object>>(entries.size());
+            for (Object[] entry : entries) {
+                Map<String, Object> values = new LinkedHashMap<String, Object>();
+                values.put("name", entry[0]);
+                values.put("millis", millis((Long) entry[1]));
+                result.add(values);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * A running measurement, recorded when closed.
+     */
+    public static class Sample implements AutoCloseable {
+        static final Sample NONE = new Sample();
+
+        private final GenerationMetrics metrics;
+        private final Stat stat;
+        private final Stat total;
+        private final Ranking ranking;
+        private final String kind;
+        private final String name;
+        private final Object event;
+        private final long startAllocatedBytes;
+        private final long startNanos;
+
+        private Sample() {
+            this.metrics = null;
+            this.stat = null;
+            this.total = null;
+            this.ranking = null;
+            this.kind = null;
+            this.name = null;
+            this.event = null;
+            this.startAllocatedBytes = 0;
+            this.startNanos = 0;
+        }
+
+        Sample(GenerationMetrics metrics, Stat stat, Stat total, Ranking ranking, String kind, String name) {
+            this.metrics = metrics;
+            this.stat = stat;
+            this.total = total;
+            this.ranking = ranking;
+            this.kind = kind;
+            this.name = name;
+            this.event = EVENT != null ? EVENT.start() : null;
+            this.startAllocatedBytes = metrics.allocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            if (metrics == null) {
+                return;
+            }
+            long nanos = System.nanoTime() - startNanos;
+            long allocatedBytes = metrics.allocatedBytes() - startAllocatedBytes;
+            stat.add(nanos, allocatedBytes);
+            if (total != null) {
+                total.add(nanos, allocatedBytes);
+            }
+            if (ranking != null) {
+                ranking.record(name, nanos);
+            }
+            if (event != null) {
+                EVENT.finish(event, kind, name, allocatedBytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.kaasa.unitycodegen;
+
+import io.swagger.codegen.CodegenConfig;
+import io.swagger.codegen.CodegenModel;
+import io.swagger.codegen.CodegenProperty;
+import io.swagger.models.ArrayModel;
+import io.swagger.models.ComposedModel;
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Builds the C# expressions the generated model JsonConverters read and write properties with, so that the templates
+ * do not need to know about every type a property can have.
+ *
+ * Read expressions read the next value of a <code>JsonReader</code> named <code>reader</code>, write expressions
+ * write a value to a <code>JsonWriter</code> named <code>writer</code>, both with the calling
+ * <code>JsonSerializer</code> named <code>serializer</code>. Containers are read and written item by item through
+ * lambdas, whose parameters are numbered by nesting depth. Primitives use the typed <code>ReadAs...</code> methods of
+ * the reader, models and enums the converters generated for them, and anything else (e.g. <code>Object</code>) the
+ * serializer.
+ */
+public class JsonConverterExpressions {
+    /** The C# expression reading the property's value. */
+    public static final String READ = "x-json-read";
+    /** The C# statement, without semicolon, writing the property's value. */
+    public static final String WRITE = "x-json-write";
+    /** The C# condition which is true when the property is to be written if default values are not emitted. */
+    public static final String HAS_VALUE = "x-json-has-value";
+    /** Set on models which get a converter. */
+    public static final String CONVERTER = "x-json-converter";
+    /** Set on enum models, true if their values are read and written as strings. */
+    public static final String STRING_ENUM = "x-json-string-enum";
+
+    private final Set<String> converterModels;
+    private final Set<String> enumModels;
+
+    /**
+     * @param converterModels Class names of the models which get a converter.
+     * @param enumModels Class names of the enum models among them.
+     */
+    public JsonConverterExpressions(Set<String> converterModels, Set<String> enumModels) {
+        this.converterModels = converterModels;
+        this.enumModels = enumModels;
+    }
+
+    /**
+     * Finds the definitions which get a converter: objects, including composed ones, and enums. Array models and
+     * models with additional properties are C# lists and dictionaries, and left to the serializer.
+     *
+     * @param definitions The definitions of the flattened spec.
+     * @param config The generator, for the class names and import mappings.
+     * @return Class name to true for enum models, to false for the other models, sorted by class name.
+     */
+    public static Map<String, Boolean> converterModels(Map<String, Model> definitions, CodegenConfig config) {
+        Map<String, Boolean> models = new TreeMap<String, Boolean>();
+        if (definitions == null) {
+            return models;
+        }
+        for (Map.Entry<String, Model> entry : definitions.entrySet()) {
+            Model model = entry.getValue();
+            if (config.importMapping().containsKey(entry.getKey()) || model instanceof ArrayModel) {
+                continue;
+            }
+            if (model instanceof ModelImpl) {
+                ModelImpl impl = (ModelImpl) model;
+                boolean isEnum = impl.getEnum() != null && !impl.getEnum().isEmpty();
+                if (isEnum || impl.getAdditionalProperties() == null) {
+                    models.put(config.toModelName(entry.getKey()), isEnum);
+                }
+            } else if (model instanceof ComposedModel) {
+                models.put(config.toModelName(entry.getKey()), false);
+            }
+        }
+        return models;
+    }
+
+    /**
+     * Adds the read and write expressions to the vars of a model which gets a converter, and marks it as such.
+     *
+     * @param model The processed model.
+     */
+    public void process(CodegenModel model) {
+        if (!converterModels.contains(model.classname)
+                || (model.parent != null && !converterModels.contains(model.parent))) {
+            return;
+        }
+        model.vendorExtensions.put(CONVERTER, true);
+        if (model.isEnum) {
+            model.vendorExtensions.put(STRING_ENUM, isStringEnum(model));
+        }
+        for (CodegenProperty var : model.vars) {
+            String type = declaredType(var);
+            String value = "this." + var.name;
+            var.vendorExtensions.put(READ, read(model, var, type, 0));
+            var.vendorExtensions.put(WRITE, write(model, var, value, 0));
+            var.vendorExtensions.put(HAS_VALUE,
+                    isValueType(var, type) ? value + " != default(" + type + ")" : value + " != null");
+        }
+    }
+
+    /**
+     * @return The C# type of the property, as declared by <code>modelGeneric.mustache</code>.
+     */
+    static String declaredType(CodegenProperty property) {
+        if (!property.isEnum) {
+            return property.datatype;
+        }
+        String type = property.complexType != null ? property.complexType : property.datatypeWithEnum;
+        return property.isContainer || property.required ? type : type + "?";
+    }
+
+    /**
+     * @return True if the enum model is declared with <code>EnumMember</code> values, as
+     *         <code>modelEnum.mustache</code> decides it by its first value.
+     */
+    @SuppressWarnings("unchecked")
+    static boolean isStringEnum(CodegenModel model) {
+        if (model.allowableValues == null) {
+            return false;
+        }
+        List<Map<String, Object>> enumVars = (List<Map<String, Object>>) model.allowableValues.get("enumVars");
+        return enumVars != null && !enumVars.isEmpty() && Boolean.TRUE.equals(enumVars.get(0).get("isString"));
+    }
+
+    private String read(CodegenModel model, CodegenProperty property, String type, int depth) {
+        String reader = name("reader", "r", depth);
+        String serializer = name("serializer", "s", depth);
+        if (property.isContainer && property.items != null) {
+            CodegenProperty items = property.items;
+            String itemType = items.datatypeWithEnum;
+            return "JsonModelConverters." + (property.isMapContainer ? "ReadDictionary" : "ReadList") + "<" + type
+                    + ", " + itemType + ">(" + reader + ", " + serializer + ", (" + name("reader", "r", depth + 1)
+                    + ", " + name("serializer", "s", depth + 1) + ") => " + read(model, items, itemType, depth + 1)
+                    + ")";
+        }
+        if (isEnumModel(property)) {
+            return nonNullable(property.complexType + "JsonConverter.Read(" + reader + ", " + serializer + ")", type);
+        }
+        if (isInnerEnum(property)) {
+            return nonNullable(
+                    model.classname + "JsonConverter.Read" + property.datatypeWithEnum + "(" + reader + ")", type);
+        }
+        if (isModel(property)) {
+            return property.complexType + "JsonConverter.Read(" + reader + ", " + serializer + ")";
+        }
+        switch (stripNullable(property.datatype)) {
+        case "string":
+            return reader + ".ReadAsString()";
+        case "int":
+            return reader + ".ReadAsInt32()";
+        case "long":
+            return "JsonModelConverters.ReadInt64(" + reader + ")";
+        case "float":
+            return "JsonModelConverters.ReadSingle(" + reader + ")";
+        case "double":
+            return reader + ".ReadAsDouble()";
+        case "decimal":
+            return reader + ".ReadAsDecimal()";
+        case "bool":
+            return reader + ".ReadAsBoolean()";
+        case "DateTime":
+            return reader + ".ReadAsDateTime()";
+        case "DateTimeOffset":
+            return reader + ".ReadAsDateTimeOffset()";
+        case "Guid":
+            return "JsonModelConverters.ReadGuid(" + reader + ")";
+        case "byte[]":
+            return reader + ".ReadAsBytes()";
+        default:
+            return "JsonModelConverters.Read<" + property.datatype + ">(" + reader + ", " + serializer + ")";
+        }
+    }
+
+    private String write(CodegenModel model, CodegenProperty property, String value, int depth) {
+        String writer = name("writer", "w", depth);
+        String serializer = name("serializer", "s", depth);
+        if (property.isContainer && property.items != null) {
+            String item = name("value", "v", depth + 1);
+            return "JsonModelConverters." + (property.isMapContainer ? "WriteDictionary" : "WriteList") + "<"
+                    + property.items.datatypeWithEnum + ">(" + writer + ", " + value + ", " + serializer + ", ("
+                    + name("writer", "w", depth + 1) + ", " + item + ", " + name("serializer", "s", depth + 1)
+                    + ") => " + write(model, property.items, item, depth + 1) + ")";
+        }
+        if (isEnumModel(property) || isModel(property)) {
+            return property.complexType + "JsonConverter.Write(" + writer + ", " + value + ", " + serializer + ")";
+        }
+        if (isInnerEnum(property)) {
+            return model.classname + "JsonConverter.Write" + property.datatypeWithEnum + "(" + writer + ", " + value
+                    + ")";
+        }
+        if (property.isDate) {
+            return "JsonModelConverters.WriteDate(" + writer + ", " + value + ")";
+        }
+        switch (stripNullable(property.datatype)) {
+        case "string":
+        case "int":
+        case "long":
+        case "float":
+        case "double":
+        case "decimal":
+        case "bool":
+        case "DateTime":
+        case "DateTimeOffset":
+        case "Guid":
+        case "byte[]":
+            return writer + ".WriteValue(" + value + ")";
+        default:
+            return serializer + ".Serialize(" + writer + ", " + value + ")";
+        }
+    }
+
+    private boolean isEnumModel(CodegenProperty property) {
+        return property.complexType != null && enumModels.contains(property.complexType);
+    }
+
+    private static boolean isInnerEnum(CodegenProperty property) {
+        return property.isEnum && property.complexType == null;
+    }
+
+    private boolean isModel(CodegenProperty property) {
+        return property.complexType != null && converterModels.contains(property.complexType);
+    }
+
+    private boolean isValueType(CodegenProperty property, String type) {
+        // non nullable enums are the only value types not declared with '?'
+        return !property.isContainer && !type.endsWith("?") && (isEnumModel(property) || isInnerEnum(property));
+    }
+
+    private static String nonNullable(String expression, String type) {
+        // enum reads return nullables, which the lists of enums and required enums do not take
+        return type.endsWith("?") ? expression : expression + ".GetValueOrDefault()";
+    }
+
+    private static String stripNullable(String type) {
+        return type.endsWith("?") ? type.substring(0, type.length() - 1) : type;
+    }
+
+    private static String name(String outer, String inner, int depth) {
+        return depth == 0 ? outer : inner + depth;
+    }
+}
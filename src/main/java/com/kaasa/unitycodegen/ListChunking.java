@@ -0,0 +1,31 @@
+package com.kaasa.unitycodegen;
+
+import io.swagger.codegen.CodegenOperation;
+
+/**
+ * Finds the operations returning a list, which get a <code>Chunked</code> variant in the generated client that parses
+ * the JSON array across frames and passes the items to a receiver chunk by chunk.
+ */
+public class ListChunking {
+    /** The type of the items of the list returned by the operation, if it returns one. */
+    public static final String ITEM_TYPE = "x-unity-item-type";
+
+    private ListChunking() {
+    }
+
+    /**
+     * Sets the item type of the operation, if it returns a list. Has to be called before the return type is changed
+     * to an <code>ICollection</code>.
+     *
+     * @param operation The operation.
+     */
+    public static void process(CodegenOperation operation) {
+        operation.vendorExtensions.remove(ITEM_TYPE);
+        String returnType = operation.returnType;
+        if (!operation.isListContainer || returnType == null || !returnType.startsWith("List<")
+                || !returnType.endsWith(">")) {
+            return;
+        }
+        operation.vendorExtensions.put(ITEM_TYPE, returnType.substring("List<".length(), returnType.length() - 1));
+    }
+}
@@ -0,0 +1,86 @@
+package com.kaasa.unitycodegen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Selects the Content-Type and Accept headers of operations from their consumes and produces, like
+ * <code>SelectHeaderContentType</code> and <code>SelectHeaderAccept</code> of the generated <code>ApiClient</code> do,
+ * so that the generated operations can send them without negotiating them on every call.
+ */
+public class MediaTypes {
+    /** The Content-Type header the operation sends, as C# string literal content. */
+    public static final String CONTENT_TYPE = "x-content-type";
+    /** The Accept header the operation sends, as C# string literal content, or absent if it sends none. */
+    public static final String ACCEPT = "x-accept";
+
+    private static final String JSON = "application/json";
+    // same as IsJsonMime of the generated ApiClient
+    private static final Pattern JSON_MIME = Pattern
+            .compile("(?i)^(application/json|[^;/ \t]+/[^;/ \t]+[+]json)[ \t]*(;.*)?$");
+
+    private MediaTypes() {
+    }
+
+    /**
+     * @param mime A media type.
+     * @return True if the media type is JSON.
+     */
+    public static boolean isJsonMime(String mime) {
+        return mime != null && (JSON_MIME.matcher(mime).matches() || mime.equals("application/json-patch+json"));
+    }
+
+    /**
+     * @param consumes The operation's consumes, as listed by <code>CodegenOperation.consumes</code>.
+     * @return The first JSON media type, else the first media type, else application/json.
+     */
+    public static String selectContentType(List<Map<String, String>> consumes) {
+        List<String> contentTypes = mediaTypes(consumes);
+        if (contentTypes.isEmpty()) {
+            return JSON;
+        }
+        for (String contentType : contentTypes) {
+            if (isJsonMime(contentType.toLowerCase(Locale.ROOT))) {
+                return contentType;
+            }
+        }
+        return contentTypes.get(0);
+    }
+
+    /**
+     * @param produces The operation's produces, as listed by <code>CodegenOperation.produces</code>.
+     * @return application/json if produced, else all media types joined by commas, else null.
+     */
+    public static String selectAccept(List<Map<String, String>> produces) {
+        List<String> accepts = mediaTypes(produces);
+        if (accepts.isEmpty()) {
+            return null;
+        }
+        for (String accept : accepts) {
+            if (JSON.equalsIgnoreCase(accept)) {
+                return JSON;
+            }
+        }
+        return String.join(",", accepts);
+    }
+
+    /**
+     * @return The text escaped for a C# string literal.
+     */
+    public static String escapeLiteral(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static List<String> mediaTypes(List<Map<String, String>> mediaTypes) {
+        List<String> types = new ArrayList<String>();
+        if (mediaTypes != null) {
+            for (Map<String, String> mediaType : mediaTypes) {
+                types.add(mediaType.get("mediaType"));
+            }
+        }
+        return types;
+    }
+}
@@ -0,0 +1,63 @@
+package com.kaasa.unitycodegen;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Bounded, thread-safe memo of a naming function, e.g. model name or variable name conversion. The same names are
+ * converted thousands of times for models, properties, parameters and imports, so each distinct input is converted
+ * once per naming mode.
+ *
+ * Entries are keyed by input only: a cache must be {@link #clear() cleared} whenever an option influencing the
+ * naming function changes (naming mode, model name prefix/suffix, reserved words...). When the cache is full it is
+ * emptied rather than evicting single entries, which keeps lookups lock free; specs rarely come near the bound.
+ */
+public class NameCache {
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    private final int maxSize;
+    private final ConcurrentMap<String, String> names = new ConcurrentHashMap<String, String>();
+
+    public NameCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public NameCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the converted name, computing it on first use. The conversion may itself use other name caches; it
+     * may be computed twice when called concurrently for the same input, so it must not have side effects besides
+     * logging.
+     *
+     * @param name Input name, null is passed to the conversion and not cached.
+     * @param conversion Naming function.
+     * @return The converted name.
+     */
+    public String get(String name, Function<String, String> conversion) {
+        if (name == null) {
+            return conversion.apply(null);
+        }
+        String converted = names.get(name);
+        if (converted == null) {
+            converted = conversion.apply(name);
+            if (converted != null) {
+                if (names.size() >= maxSize) {
+                    names.clear();
+                }
+                names.put(name, converted);
+            }
+        }
+        return converted;
+    }
+
+    public void clear() {
+        names.clear();
+    }
+
+    public int size() {
+        return names.size();
+    }
+}
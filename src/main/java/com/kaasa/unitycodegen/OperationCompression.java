@@ -0,0 +1,49 @@
+package com.kaasa.unitycodegen;
+
+import io.swagger.codegen.CodegenOperation;
+
+import java.util.Locale;
+
+/**
+ * Reads how the generated client compresses the request body of an operation
+ * (<code>x-unity-compression: off | gzip | deflate</code>), normalized to the name of the
+ * <code>RequestCompression</code> member. Operations without a valid value, or without a body or form
+ * parameters, get <code>Default</code>, the encoding of the compression settings of the configuration.
+ */
+public class OperationCompression {
+    /** The compression of the request body of the operation. */
+    public static final String EXTENSION = "x-unity-compression";
+
+    private static final String DEFAULT = "Default";
+
+    private OperationCompression() {
+    }
+
+    /**
+     * Normalizes the vendor extension of the operation.
+     *
+     * @param operation The operation.
+     * @return The value of the vendor extension if it is ignored, else null.
+     */
+    public static Object process(CodegenOperation operation) {
+        Object value = operation.vendorExtensions.get(EXTENSION);
+        operation.vendorExtensions.put(EXTENSION, DEFAULT);
+        if (value == null) {
+            return null;
+        }
+        if (operation.bodyParam == null && (operation.formParams == null || operation.formParams.isEmpty())) {
+            return value;
+        }
+        String name = value.toString().trim().toLowerCase(Locale.ROOT);
+        if ("off".equals(name) || "false".equals(name) || "none".equals(name)) {
+            operation.vendorExtensions.put(EXTENSION, "Off");
+        } else if ("gzip".equals(name)) {
+            operation.vendorExtensions.put(EXTENSION, "Gzip");
+        } else if ("deflate".equals(name)) {
+            operation.vendorExtensions.put(EXTENSION, "Deflate");
+        } else if (!"default".equals(name) && !"true".equals(name)) {
+            return value;
+        }
+        return null;
+    }
+}
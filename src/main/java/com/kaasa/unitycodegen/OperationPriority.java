@@ -0,0 +1,43 @@
+package com.kaasa.unitycodegen;
+
+import io.swagger.codegen.CodegenOperation;
+
+import java.util.Locale;
+
+/**
+ * Reads the priority lane the requests of an operation are scheduled in by the generated client
+ * (<code>x-unity-priority: critical | high | normal | low</code>), normalized to the name of the
+ * <code>RequestPriority</code> member. Operations without a valid priority get <code>Normal</code>.
+ */
+public class OperationPriority {
+    /** The priority of the operation. */
+    public static final String EXTENSION = "x-unity-priority";
+
+    private static final String DEFAULT = "Normal";
+    private static final String[] PRIORITIES = {"Critical", "High", "Normal", "Low"};
+
+    private OperationPriority() {
+    }
+
+    /**
+     * Normalizes the vendor extension of the operation.
+     *
+     * @param operation The operation.
+     * @return The value of the vendor extension if it is not a priority, else null.
+     */
+    public static Object process(CodegenOperation operation) {
+        Object value = operation.vendorExtensions.get(EXTENSION);
+        operation.vendorExtensions.put(EXTENSION, DEFAULT);
+        if (value == null) {
+            return null;
+        }
+        String name = value.toString().trim().toLowerCase(Locale.ROOT);
+        for (String priority : PRIORITIES) {
+            if (priority.toLowerCase(Locale.ROOT).equals(name)) {
+                operation.vendorExtensions.put(EXTENSION, priority);
+                return null;
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,74 @@
+package com.kaasa.unitycodegen;
+
+import io.swagger.codegen.CodegenOperation;
+import io.swagger.codegen.CodegenParameter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits the path of an operation into its literal parts and path parameters at generation time, so that the
+ * generated operations append them to the URL in order instead of replacing placeholders on every call.
+ */
+public class PathTemplate {
+    /** The segments of the operation's path, each holding either a <code>pathLiteral</code> or a <code>pathParam</code>. */
+    public static final String SEGMENTS = "x-path-segments";
+
+    private PathTemplate() {
+    }
+
+    /**
+     * @param operation The operation, with its path parameters.
+     * @return The segments of the path, in order. Literal parts are escaped for C# string literals, path parameters
+     * are named after the C# parameter. Placeholders without path parameter are kept as literal parts.
+     */
+    public static List<Map<String, String>> segments(CodegenOperation operation) {
+        List<Map<String, String>> segments = new ArrayList<Map<String, String>>();
+        String path = operation.path;
+        StringBuilder literal = new StringBuilder();
+        int start = 0;
+        while (start < path.length()) {
+            int open = path.indexOf('{', start);
+            int close = open < 0 ? -1 : path.indexOf('}', open);
+            if (close < 0) {
+                literal.append(path, start, path.length());
+                break;
+            }
+            literal.append(path, start, open);
+            String paramName = paramName(operation, path.substring(open + 1, close));
+            if (paramName == null) {
+                literal.append(path, open, close + 1);
+            } else {
+                addLiteral(segments, literal);
+                Map<String, String> segment = new HashMap<String, String>();
+                segment.put("pathParam", paramName);
+                segments.add(segment);
+            }
+            start = close + 1;
+        }
+        addLiteral(segments, literal);
+        return segments;
+    }
+
+    private static void addLiteral(List<Map<String, String>> segments, StringBuilder literal) {
+        if (literal.length() > 0) {
+            Map<String, String> segment = new HashMap<String, String>();
+            segment.put("pathLiteral", MediaTypes.escapeLiteral(literal.toString()));
+            segments.add(segment);
+            literal.setLength(0);
+        }
+    }
+
+    private static String paramName(CodegenOperation operation, String baseName) {
+        if (operation.pathParams != null) {
+            for (CodegenParameter param : operation.pathParams) {
+                if (baseName.equals(param.baseName)) {
+                    return param.paramName;
+                }
+            }
+        }
+        return null;
+    }
+}
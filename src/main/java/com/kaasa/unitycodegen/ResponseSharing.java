@@ -0,0 +1,59 @@
+package com.kaasa.unitycodegen;
+
+import io.swagger.codegen.CodegenOperation;
+
+/**
+ * Decides which operations share their deserialized responses in the generated client, between the calls served
+ * from its response cache (<code>x-unity-cache: true</code>) or coalesced into one request while identical calls are
+ * in flight (<code>x-unity-coalesce: true</code>). The vendor extensions are only kept on safe operations whose
+ * responses can be shared: GET operations returning a value, without body or form parameters.
+ */
+public class ResponseSharing {
+    /** Whether the operation is served from the response cache of the configuration, if it has one. */
+    public static final String CACHE = "x-unity-cache";
+    /** Whether identical concurrent calls of the operation share one request. */
+    public static final String COALESCE = "x-unity-coalesce";
+    /** Whether the operation is cached or coalesced, set by {@link #process(CodegenOperation)}. */
+    public static final String SHARED = "x-unity-shared";
+
+    private ResponseSharing() {
+    }
+
+    /**
+     * Normalizes the vendor extensions of the operation to <code>Boolean.TRUE</code>, or removes them.
+     *
+     * @param operation The operation.
+     * @return The vendor extensions requested on an operation whose responses cannot be shared, if any.
+     */
+    public static String process(CodegenOperation operation) {
+        boolean cache = isRequested(operation, CACHE);
+        boolean coalesce = isRequested(operation, COALESCE);
+        operation.vendorExtensions.remove(CACHE);
+        operation.vendorExtensions.remove(COALESCE);
+        operation.vendorExtensions.remove(SHARED);
+        if (!cache && !coalesce) {
+            return null;
+        }
+        if (!isShareable(operation)) {
+            return cache && coalesce ? CACHE + " and " + COALESCE : cache ? CACHE : COALESCE;
+        }
+        if (cache) {
+            operation.vendorExtensions.put(CACHE, Boolean.TRUE);
+        }
+        if (coalesce) {
+            operation.vendorExtensions.put(COALESCE, Boolean.TRUE);
+        }
+        operation.vendorExtensions.put(SHARED, Boolean.TRUE);
+        return null;
+    }
+
+    private static boolean isRequested(CodegenOperation operation, String extension) {
+        Object value = operation.vendorExtensions.get(extension);
+        return Boolean.TRUE.equals(value) || (value instanceof String && Boolean.parseBoolean((String) value));
+    }
+
+    private static boolean isShareable(CodegenOperation operation) {
+        return "GET".equalsIgnoreCase(operation.httpMethod) && operation.returnType != null
+                && operation.bodyParam == null && (operation.formParams == null || operation.formParams.isEmpty());
+    }
+}
@@ -0,0 +1,140 @@
+package com.kaasa.unitycodegen;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The models and APIs of a spec which have to be regenerated, given the snapshot of the spec they were last generated
+ * from.
+ *
+ * A model is regenerated when its definition changed, or when it refers to a regenerated model, directly or through
+ * other models. Parents are regenerated along with their regenerated children, as they list their subtypes. To be
+ * post processed like in a full run, regenerated models are processed together with the models they refer to and,
+ * for parents, with all their children. An API is regenerated when one of its operations changed or refers to a
+ * regenerated model, or when operations were added to or removed from it.
+ */
+public class SpecDiff {
+    private final Set<String> renderedModels = new HashSet<String>();
+    private final Set<String> processedModels = new HashSet<String>();
+    private final Set<String> changedOperations = new HashSet<String>();
+    private final SpecSnapshot previous;
+
+    /**
+     * @param previous Snapshot of the previous run.
+     * @param current Snapshot of the current spec.
+     * @param missingModels Models whose generated files are missing or were modified since the previous run.
+     */
+    public SpecDiff(SpecSnapshot previous, SpecSnapshot current, Collection<String> missingModels) {
+        this.previous = previous;
+
+        Set<String> changed = new HashSet<String>(missingModels);
+        for (Map.Entry<String, String> entry : current.definitions.entrySet()) {
+            if (!entry.getValue().equals(previous.definitions.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+
+        Map<String, Set<String>> referrers = invert(current.definitionRefs);
+        Map<String, Set<String>> children = invert(current.definitionParents);
+
+        // everything referring to a changed model, and the ancestors listing those as subtypes
+        Set<String> affected = closure(changed, referrers);
+        renderedModels.addAll(closure(affected, current.definitionParents));
+        renderedModels.retainAll(current.definitions.keySet());
+
+        // post processing needs the enum models and parents they refer to, and the subtypes of the parents
+        for (String name : closure(renderedModels, children)) {
+            processedModels.add(name);
+            Set<String> refs = current.definitionRefs.get(name);
+            if (refs != null) {
+                processedModels.addAll(refs);
+            }
+        }
+        processedModels.retainAll(current.definitions.keySet());
+
+        for (Map.Entry<String, String> entry : current.operations.entrySet()) {
+            if (!entry.getValue().equals(previous.operations.get(entry.getKey()))
+                    || !Collections.disjoint(current.operationRefs.get(entry.getKey()), renderedModels)) {
+                changedOperations.add(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * @return True if the model's files are to be rendered.
+     */
+    public boolean isModelRendered(String name) {
+        return renderedModels.contains(name);
+    }
+
+    /**
+     * @return True if the model is to be processed, for being rendered or for post processing the rendered models.
+     */
+    public boolean isModelProcessed(String name) {
+        return processedModels.contains(name);
+    }
+
+    /**
+     * @param tag The API's tag.
+     * @param operationKeys Keys of the API's operations, see {@link SpecSnapshot#operationKey(String, String)}.
+     * @param hash The API's hash in the current snapshot.
+     * @return True if the API's files are to be rendered.
+     */
+    public boolean isApiRendered(String tag, Collection<String> operationKeys, String hash) {
+        if (hash == null || !hash.equals(previous.apis.get(tag))) {
+            return true;
+        }
+        for (String key : operationKeys) {
+            if (changedOperations.contains(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getRenderedModelCount() {
+        return renderedModels.size();
+    }
+
+    public int getProcessedModelCount() {
+        return processedModels.size();
+    }
+
+    private static Map<String, Set<String>> invert(Map<String, Set<String>> edges) {
+        Map<String, Set<String>> inverted = new HashMap<String, Set<String>>();
+        for (Map.Entry<String, Set<String>> entry : edges.entrySet()) {
+            for (String target : entry.getValue()) {
+                Set<String> sources = inverted.get(target);
+                if (sources == null) {
+                    sources = new HashSet<String>();
+                    inverted.put(target, sources);
+                }
+                sources.add(entry.getKey());
+            }
+        }
+        return inverted;
+    }
+
+    private static Set<String> closure(Set<String> start, Map<String, Set<String>> edges) {
+        Set<String> reached = new HashSet<String>(start);
+        Deque<String> pending = new ArrayDeque<String>(start);
+        while (!pending.isEmpty()) {
+            Set<String> next = edges.get(pending.pop());
+            if (next == null) {
+                continue;
+            }
+            for (String name : next) {
+                if (reached.add(name)) {
+                    pending.push(name);
+                }
+            }
+        }
+        return reached;
+    }
+}
@@ -0,0 +1,210 @@
+package com.kaasa.unitycodegen;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.swagger.codegen.CodegenConfig;
+import io.swagger.models.ComposedModel;
+import io.swagger.models.HttpMethod;
+import io.swagger.models.Model;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.RefModel;
+import io.swagger.models.Swagger;
+import io.swagger.util.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Content hashes of the definitions and operations of a spec, as generated by a run, which a later run compares the
+ * new spec against to find out what changed (see {@link SpecDiff}).
+ *
+ * Besides the hashes, which are stored as JSON under the output folder's <code>.swagger-codegen</code> directory,
+ * a snapshot taken of the current spec knows the references between its definitions and operations.
+ */
+public class SpecSnapshot {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpecSnapshot.class);
+
+    public static final String SNAPSHOT_FILENAME = ".swagger-codegen" + File.separator + "unity-spec.json";
+
+    /** Hash of everything but the definitions and paths, together with the generator settings. */
+    public String settings;
+    /** Definition name to content hash. */
+    public Map<String, String> definitions = new TreeMap<String, String>();
+    /** Operation key (e.g. <code>GET /pets/{id}</code>) to content hash, including the path's parameters. */
+    public Map<String, String> operations = new TreeMap<String, String>();
+    /** API tag to the hash of the keys of its operations. */
+    public Map<String, String> apis = new TreeMap<String, String>();
+
+    // only known for a snapshot of the current spec
+    @JsonIgnore
+    final Map<String, Set<String>> definitionRefs = new HashMap<String, Set<String>>();
+    @JsonIgnore
+    final Map<String, Set<String>> definitionParents = new HashMap<String, Set<String>>();
+    @JsonIgnore
+    final Map<String, Set<String>> operationRefs = new HashMap<String, Set<String>>();
+
+    /**
+     * Takes the snapshot of a spec whose inline models have been flattened already.
+     *
+     * @param swagger The spec.
+     * @param settings Generator settings which affect all generated files, e.g. options and template versions.
+     * @param config The generator, whose tag sanitizing is used to group the operations.
+     * @return The snapshot.
+     */
+    public static SpecSnapshot of(Swagger swagger, String settings, CodegenConfig config) {
+        SpecSnapshot snapshot = new SpecSnapshot();
+
+        ObjectNode root = Json.mapper().valueToTree(swagger);
+        root.remove("definitions");
+        root.remove("paths");
+        snapshot.settings = hash(root.toString() + '\u0000' + settings);
+
+        if (swagger.getDefinitions() != null) {
+            for (Map.Entry<String, Model> entry : swagger.getDefinitions().entrySet()) {
+                JsonNode tree = Json.mapper().valueToTree(entry.getValue());
+                snapshot.definitions.put(entry.getKey(), hash(tree.toString()));
+                snapshot.definitionRefs.put(entry.getKey(), collectRefs(tree, new LinkedHashSet<String>()));
+
+                Set<String> parents = new LinkedHashSet<String>();
+                if (entry.getValue() instanceof ComposedModel) {
+                    List<Model> allOf = ((ComposedModel) entry.getValue()).getAllOf();
+                    if (allOf != null) {
+                        for (Model model : allOf) {
+                            if (model instanceof RefModel) {
+                                parents.add(((RefModel) model).getSimpleRef());
+                            }
+                        }
+                    }
+                }
+                snapshot.definitionParents.put(entry.getKey(), parents);
+            }
+        }
+
+        Map<String, Set<String>> apiOperations = new TreeMap<String, Set<String>>();
+        if (swagger.getPaths() != null) {
+            for (Map.Entry<String, Path> pathEntry : swagger.getPaths().entrySet()) {
+                Path path = pathEntry.getValue();
+                for (Map.Entry<HttpMethod, Operation> entry : path.getOperationMap().entrySet()) {
+                    String key = operationKey(entry.getKey().name(), pathEntry.getKey());
+                    ObjectNode tree = Json.mapper().createObjectNode();
+                    tree.set("operation", Json.mapper().valueToTree(entry.getValue()));
+                    tree.set("pathParameters", Json.mapper().valueToTree(path.getParameters()));
+                    snapshot.operations.put(key, hash(tree.toString()));
+                    snapshot.operationRefs.put(key, collectRefs(tree, new LinkedHashSet<String>()));
+
+                    List<String> tags = entry.getValue().getTags();
+                    if (tags == null || tags.isEmpty()) {
+                        tags = Collections.singletonList("default");
+                    }
+                    for (String tag : tags) {
+                        String api = config.sanitizeTag(tag);
+                        Set<String> keys = apiOperations.get(api);
+                        if (keys == null) {
+                            keys = new TreeSet<String>();
+                            apiOperations.put(api, keys);
+                        }
+                        keys.add(key);
+                    }
+                }
+            }
+        }
+        for (Map.Entry<String, Set<String>> entry : apiOperations.entrySet()) {
+            snapshot.apis.put(entry.getKey(), hash(entry.getValue().toString()));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Loads the snapshot of the previous run from the given output folder.
+     *
+     * @param outputDir The generation output folder.
+     * @return The snapshot, or null if there is none or it cannot be read.
+     */
+    public static SpecSnapshot load(File outputDir) {
+        File snapshotFile = new File(outputDir.getAbsoluteFile(), SNAPSHOT_FILENAME);
+        if (!snapshotFile.isFile()) {
+            return null;
+        }
+        try {
+            return Json.mapper().readValue(snapshotFile, SpecSnapshot.class);
+        } catch (IOException e) {
+            LOGGER.warn("Could not read spec snapshot {}, all files will be generated: {}", snapshotFile,
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes this snapshot into the given output folder.
+     *
+     * @param outputDir The generation output folder.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public void save(File outputDir) throws IOException {
+        File snapshotFile = new File(outputDir.getAbsoluteFile(), SNAPSHOT_FILENAME);
+        File parent = snapshotFile.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Could not create directory " + parent);
+        }
+        Json.mapper().writerWithDefaultPrettyPrinter().writeValue(snapshotFile, this);
+    }
+
+    /**
+     * Removes the snapshot from the given output folder, so that the next run generates all files.
+     *
+     * @param outputDir The generation output folder.
+     */
+    public static void delete(File outputDir) {
+        File snapshotFile = new File(outputDir.getAbsoluteFile(), SNAPSHOT_FILENAME);
+        if (snapshotFile.isFile() && !snapshotFile.delete()) {
+            LOGGER.warn("Could not delete spec snapshot {}", snapshotFile);
+        }
+    }
+
+    /**
+     * @param httpMethod HTTP method, in any case.
+     * @param path Resource path.
+     * @return The key of the operation, e.g. <code>GET /pets/{id}</code>.
+     */
+    public static String operationKey(String httpMethod, String path) {
+        return httpMethod.toUpperCase() + " " + path;
+    }
+
+    private static Set<String> collectRefs(JsonNode node, Set<String> refs) {
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if ("$ref".equals(field.getKey()) && field.getValue().isTextual()) {
+                    String ref = field.getValue().asText();
+                    refs.add(ref.substring(ref.lastIndexOf('/') + 1));
+                } else {
+                    collectRefs(field.getValue(), refs);
+                }
+            }
+        } else if (node.isArray()) {
+            for (JsonNode element : node) {
+                collectRefs(element, refs);
+            }
+        }
+        return refs;
+    }
+
+    private static String hash(String value) {
+        return GenerationManifest.hash(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
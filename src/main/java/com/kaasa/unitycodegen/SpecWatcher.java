@@ -0,0 +1,162 @@
+package com.kaasa.unitycodegen;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches spec files, and folders such as the template folder, and runs a generation whenever they change. Runs
+ * until interrupted, so that the JVM, the JIT compiled generator and its caches stay warm between generations.
+ *
+ * Changes are collected until the files have been quiet for the debounce delay, as editors often write a file in
+ * several steps. Files are watched through their folders, so that files replaced by editors on save are picked up.
+ * Folders are watched recursively. Generation errors are logged and do not stop the watcher.
+ */
+public class SpecWatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpecWatcher.class);
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 300;
+
+    private final Set<Path> files = new HashSet<Path>();
+    private final Set<Path> folders = new HashSet<Path>();
+    private final Runnable generation;
+    private long debounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+
+    /**
+     * @param watched Spec files and folders to watch.
+     * @param generation The generation to run on changes.
+     */
+    public SpecWatcher(List<File> watched, Runnable generation) {
+        for (File file : watched) {
+            Path path = file.getAbsoluteFile().toPath().normalize();
+            if (Files.isDirectory(path)) {
+                folders.add(path);
+            } else {
+                files.add(path);
+            }
+        }
+        this.generation = generation;
+    }
+
+    public void setDebounceMillis(long debounceMillis) {
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Runs the generation once, then again on every change, until the thread is interrupted.
+     *
+     * @throws IOException if the files cannot be watched.
+     */
+    public void run() throws IOException {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            Map<WatchKey, Path> keys = new HashMap<WatchKey, Path>();
+            for (Path file : files) {
+                register(watchService, keys, file.getParent());
+            }
+            for (Path folder : folders) {
+                registerRecursively(watchService, keys, folder);
+            }
+
+            runGeneration();
+            LOGGER.info("Watching {} for changes", describeWatched());
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                // collect changes until the files are quiet
+                while (key != null) {
+                    changed |= handleEvents(watchService, keys, key);
+                    key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                }
+                if (changed) {
+                    runGeneration();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean handleEvents(WatchService watchService, Map<WatchKey, Path> keys, WatchKey key)
+            throws IOException {
+        boolean changed = false;
+        Path dir = keys.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (dir == null || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            if (files.contains(path) || isInWatchedFolder(path)) {
+                changed = true;
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)
+                        && isInWatchedFolder(path)) {
+                    registerRecursively(watchService, keys, path);
+                }
+            }
+        }
+        if (!key.reset()) {
+            keys.remove(key);
+        }
+        return changed;
+    }
+
+    private void runGeneration() {
+        long start = System.nanoTime();
+        try {
+            generation.run();
+            LOGGER.info("Generated in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            LOGGER.error("Generation failed: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean isInWatchedFolder(Path path) {
+        for (Path folder : folders) {
+            if (path.startsWith(folder)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String describeWatched() {
+        Set<Path> watched = new HashSet<Path>(files);
+        watched.addAll(folders);
+        return watched.toString();
+    }
+
+    private static void register(WatchService watchService, Map<WatchKey, Path> keys, Path dir) throws IOException {
+        WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        keys.put(key, dir);
+    }
+
+    private static void registerRecursively(final WatchService watchService, final Map<WatchKey, Path> keys,
+            Path folder) throws IOException {
+        Files.walkFileTree(folder, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                register(watchService, keys, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
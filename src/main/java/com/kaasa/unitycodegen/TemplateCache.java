@@ -0,0 +1,267 @@
+package com.kaasa.unitycodegen;
+
+import com.samskivert.mustache.Mustache;
+import com.samskivert.mustache.Template;
+import io.swagger.codegen.CodegenConfig;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled Mustache templates, shared by all generation runs of the process.
+ *
+ * Templates are cached by generator, template folders and template path, and recompiled when the content hash of the
+ * template, or of any partial it included so far, no longer matches the files, e.g. after a template in a custom
+ * template folder was edited. jmustache compiles partials when they are first executed and keeps them with the
+ * including template, so partials are compiled once per place they are included at.
+ *
+ * Templates are resolved like <code>AbstractGenerator.getFullTemplateFile</code> and read like
+ * <code>AbstractGenerator.getTemplateReader</code> do. So that partials can be measured on their own, every partial
+ * tag is wrapped into a section of a lambda named <code>partial:&lt;name&gt;</code>, which
+ * {@link #execute(Template, Object, GenerationMetrics)} provides; standalone tags are wrapped into standalone
+ * sections, so the output does not change.
+ */
+public class TemplateCache {
+    private static final TemplateCache SHARED = new TemplateCache();
+
+    private static final String PARTIAL_LAMBDA = "partial:";
+
+    // a partial tag, with the indentation and line end it has if it stands alone on its line
+    private static final Pattern PARTIAL_TAG = Pattern
+            .compile("(?m)(^[ \\t]*)?(\\{\\{>\\s*([\\w-]+)\\s*\\}\\})([ \\t]*(\\r?\\n))?");
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    /**
+     * @return The cache shared by all generators of the process.
+     */
+    public static TemplateCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the compiled template, compiling it if it is not cached or changed since it was compiled. The template
+     * files are read to compare their hashes, so callers should only do this once per template and run.
+     *
+     * @param config The generator, which provides the template folders and configures the compiler.
+     * @param templateFile Template path, as resolved by <code>getFullTemplateFile</code>.
+     * @return The compiled template.
+     */
+    public Template get(final CodegenConfig config, final String templateFile) {
+        final Source source = new Source(config);
+        final String key = source.id + '\u0000' + templateFile;
+        return entries.compute(key, (k, entry) -> {
+            String contents = source.read(templateFile);
+            String hash = GenerationManifest.hash(contents.getBytes(StandardCharsets.UTF_8));
+            if (entry != null && entry.isValid(source, hash)) {
+                return entry;
+            }
+            Entry compiled = new Entry(hash);
+            Mustache.Compiler compiler = config.processCompiler(Mustache.compiler());
+            compiled.template = compiler.withLoader(compiled.loader(source)).defaultValue("")
+                    .compile(wrapPartials(contents));
+            return compiled;
+        }).template;
+    }
+
+    /**
+     * Executes a template of the cache, measuring every partial it includes.
+     *
+     * @param template Template returned by {@link #get(CodegenConfig, String)}.
+     * @param context Template data.
+     * @param metrics Metrics to record the partials into, as {@link GenerationMetrics#partial(String)}.
+     * @return The rendered template.
+     */
+    public static String execute(Template template, Object context, GenerationMetrics metrics) {
+        StringWriter out = new StringWriter();
+        template.execute(context, new PartialLambdas(metrics), out);
+        return out.toString();
+    }
+
+    private static String wrapPartials(String contents) {
+        Matcher matcher = PARTIAL_TAG.matcher(contents);
+        StringBuffer sb = new StringBuffer(contents.length() + 256);
+        while (matcher.find()) {
+            String indent = matcher.group(1) != null ? matcher.group(1) : "";
+            String tag = matcher.group(2);
+            String lambda = PARTIAL_LAMBDA + matcher.group(3);
+            String lineEnd = matcher.group(4) != null ? matcher.group(4) : "";
+            String wrapped;
+            if (matcher.group(1) != null && matcher.group(4) != null) {
+                String newline = matcher.group(5);
+                wrapped = "{{#" + lambda + "}}" + newline + indent + tag + lineEnd + "{{/" + lambda + "}}" + newline;
+            } else {
+                wrapped = indent + "{{#" + lambda + "}}" + tag + "{{/" + lambda + "}}" + lineEnd;
+            }
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(wrapped));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private static class Entry {
+        final String hash;
+        // partial name to its path and content hash, as loaded so far
+        final Map<String, String[]> partials = new ConcurrentHashMap<String, String[]>();
+        Template template;
+
+        Entry(String hash) {
+            this.hash = hash;
+        }
+
+        Mustache.TemplateLoader loader(final Source source) {
+            return new Mustache.TemplateLoader() {
+                @Override
+                public Reader getTemplate(String name) {
+                    String path = source.resolve(name + ".mustache");
+                    String contents = source.read(path);
+                    partials.put(name,
+                            new String[] { path, GenerationManifest.hash(contents.getBytes(StandardCharsets.UTF_8)) });
+                    return new StringReader(wrapPartials(contents));
+                }
+            };
+        }
+
+        boolean isValid(Source source, String hash) {
+            if (!this.hash.equals(hash)) {
+                return false;
+            }
+            for (Map.Entry<String, String[]> partial : partials.entrySet()) {
+                String path = source.resolve(partial.getKey() + ".mustache");
+                if (!path.equals(partial.getValue()[0]) || !GenerationManifest
+                        .hash(source.read(path).getBytes(StandardCharsets.UTF_8)).equals(partial.getValue()[1])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The <code>partial:&lt;name&gt;</code> lambdas of the wrapped partial tags, as the parent context of templates.
+     */
+    private static class PartialLambdas extends AbstractMap<String, Object> {
+        private final GenerationMetrics metrics;
+
+        PartialLambdas(GenerationMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && ((String) key).startsWith(PARTIAL_LAMBDA);
+        }
+
+        @Override
+        public Object get(Object key) {
+            if (!containsKey(key)) {
+                return null;
+            }
+            final String partial = ((String) key).substring(PARTIAL_LAMBDA.length());
+            return new Mustache.Lambda() {
+                @Override
+                @SuppressWarnings("try")
+                public void execute(Template.Fragment frag, Writer out) {
+                    try (GenerationMetrics.Sample sample = metrics.partial(partial)) {
+                        frag.execute(out);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public Set<Map.Entry<String, Object>> entrySet() {
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * Where the templates of a generator come from. Only holds the folders, so that cached templates do not keep
+     * generators, and the specs they hold, alive.
+     */
+    private static class Source {
+        final String id;
+        final String templateDir;
+        final String embeddedTemplateDir;
+        final String library;
+        final ClassLoader classLoader;
+
+        Source(CodegenConfig config) {
+            this.templateDir = config.templateDir();
+            this.embeddedTemplateDir = config.embeddedTemplateDir();
+            this.library = config.getLibrary();
+            this.classLoader = config.getClass().getClassLoader();
+            this.id = config.getClass().getName() + '\u0000' + templateDir + '\u0000' + embeddedTemplateDir + '\u0000'
+                    + library;
+        }
+
+        String resolve(String templateFile) {
+            if (StringUtils.isNotEmpty(library)) {
+                String libTemplateFile = libraryPath(templateDir, templateFile);
+                if (new File(libTemplateFile).exists()) {
+                    return libTemplateFile;
+                }
+            }
+            String template = templateDir + File.separator + templateFile;
+            if (new File(template).exists()) {
+                return template;
+            }
+            if (StringUtils.isNotEmpty(library)) {
+                String embeddedLibTemplateFile = libraryPath(embeddedTemplateDir, templateFile);
+                if (classLoader.getResource(resourcePath(embeddedLibTemplateFile)) != null) {
+                    return embeddedLibTemplateFile;
+                }
+            }
+            return embeddedTemplateDir + File.separator + templateFile;
+        }
+
+        String read(String path) {
+            try {
+                InputStream in = classLoader.getResourceAsStream(resourcePath(path));
+                if (in == null) {
+                    in = new FileInputStream(new File(path));
+                }
+                try {
+                    return IOUtils.toString(in, StandardCharsets.UTF_8);
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("can't load template " + path, e);
+            }
+        }
+
+        private String libraryPath(String dir, String templateFile) {
+            return dir + File.separator + "libraries" + File.separator + library + File.separator + templateFile;
+        }
+
+        private static String resourcePath(String name) {
+            return "/".equals(File.separator) ? name : name.replace(File.separator, "/");
+        }
+    }
+}
@@ -0,0 +1,1225 @@
+package com.kaasa.unitycodegen;
+
+import com.samskivert.mustache.Template;
+import io.swagger.codegen.*;
+import io.swagger.codegen.utils.ImplementationVersion;
+import io.swagger.models.AbstractModel;
+import io.swagger.models.ArrayModel;
+import io.swagger.models.ComposedModel;
+import io.swagger.models.Model;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.RefModel;
+import io.swagger.models.Swagger;
+import io.swagger.models.properties.AbstractProperty;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.ObjectProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.util.Json;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generator driving {@link UnityGenerator}. It drives the generation steps of {@link DefaultGenerator} itself, as they
+ * are private in swagger-codegen {@value #SWAGGER_CODEGEN_VERSION}, and adds:
+ * <ul>
+ * <li>incremental generation: when the <code>incrementalGeneration</code> option is set, a {@link GenerationManifest}
+ * of content hashes is kept in the output folder and files whose rendered content did not change since the previous
+ * run are not rewritten, which keeps Unity from reimporting and recompiling them.</li>
+ * <li>parallel generation: when <code>generationThreads</code> is not 1, models and API groups are processed,
+ * rendered and written concurrently on a worker pool. Results are collected in the same order as a serial run, so
+ * the output is identical.</li>
+ * <li>generation metrics: when <code>generationMetrics</code> is set or {@link GenerationMetrics} are passed in, the
+ * time and allocations of every phase and template, and the slowest models and operations, are written to
+ * <code>.swagger-codegen/unity-metrics.json</code> in the output folder.</li>
+ * <li>spec diff generation: when <code>specDiffGeneration</code> is set, a {@link SpecSnapshot} of the spec is kept
+ * in the output folder, and the next run only processes and renders the models and APIs affected by the changes
+ * since (see {@link SpecDiff}). Supporting files are always generated; the models which are not processed are passed
+ * to them as stubs only carrying their names.</li>
+ * </ul>
+ * Compiled templates are kept in the {@link TemplateCache} shared by all runs of the process. The steps which need
+ * none of the above, i.e. the configuration, processing the models and operations of a group and building the
+ * supporting file bundle, are left to the implementations of {@link DefaultGenerator}, which are called
+ * reflectively. Generation therefore fails up front with any other swagger-codegen version (see
+ * {@link #checkSwaggerCodegenVersion()}).
+ */
+public class UnityClientGenerator extends DefaultGenerator {
+    @SuppressWarnings({ "hiding" })
+    private static final Logger LOGGER = LoggerFactory.getLogger(UnityClientGenerator.class);
+
+    /**
+     * The swagger-codegen version this generator is built for. The steps of {@link DefaultGenerator} which are reused
+     * unchanged are private, so they are called reflectively and only the exact version they were written against is
+     * accepted.
+     */
+    public static final String SWAGGER_CODEGEN_VERSION = "2.3.1";
+
+    protected GenerationManifest manifest;
+    protected final AtomicInteger filesWritten = new AtomicInteger();
+    protected final AtomicInteger filesSkipped = new AtomicInteger();
+
+    // null when generating serially
+    protected ExecutorService executor;
+
+    protected GenerationMetrics metrics = GenerationMetrics.DISABLED;
+
+    // templates of this run, taken from the process wide cache
+    protected final ConcurrentMap<String, Template> templates = new ConcurrentHashMap<String, Template>();
+
+    // spec the output folder was last generated from, instead of its snapshot
+    protected Swagger previousSwagger;
+    // null when generating everything
+    protected SpecSnapshot specSnapshot;
+    protected SpecDiff specDiff;
+
+    // what to generate, as configured by DefaultGenerator
+    private boolean generateApis;
+    private boolean generateModels;
+    private boolean generateSupportingFiles;
+    private boolean generateApiTests;
+    private boolean generateApiDocumentation;
+    private boolean generateModelTests;
+    private boolean generateModelDocumentation;
+    private boolean generateSwaggerMetadata;
+    private String basePath;
+    private String basePathWithoutHost;
+    private String contextPath;
+
+    @Override
+    @SuppressWarnings("try")
+    public List<File> generate() {
+        if (swagger == null || config == null) {
+            throw new RuntimeException("missing swagger input or config!");
+        }
+        checkSwaggerCodegenVersion();
+        if (!metrics.isEnabled() && isGenerationMetrics()) {
+            metrics = new GenerationMetrics();
+        }
+        if (config instanceof UnityGenerator) {
+            ((UnityGenerator) config).setMetrics(metrics);
+        }
+
+        // options as given, before processOpts adds e.g. the generation date
+        Map<String, String> options = new TreeMap<String, String>();
+        for (Map.Entry<String, Object> entry : config.additionalProperties().entrySet()) {
+            options.put(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+
+        try (GenerationMetrics.Sample sample = metrics.phase(GenerationMetrics.CONFIGURE)) {
+            configure();
+        }
+
+        templates.clear();
+        manifest = isIncrementalGeneration() ? GenerationManifest.load(new File(config.getOutputDir())) : null;
+        filesWritten.set(0);
+        filesSkipped.set(0);
+
+        int threads = getGenerationThreads();
+        if (threads > 1) {
+            LOGGER.info("Generating on {} threads", threads);
+            executor = Executors.newFixedThreadPool(threads);
+        }
+
+        try {
+            // resolve inline models
+            try (GenerationMetrics.Sample sample = metrics.phase(GenerationMetrics.FLATTEN)) {
+                InlineModelResolver inlineModelResolver = new InlineModelResolver();
+                inlineModelResolver.flatten(swagger);
+            }
+            if (executor != null) {
+                synchronizeVendorExtensions(swagger);
+            }
+            specSnapshot = null;
+            specDiff = null;
+            if (isSpecDiffGeneration()) {
+                try (GenerationMetrics.Sample sample = metrics.phase(GenerationMetrics.DIFF)) {
+                    prepareSpecDiff(options);
+                }
+            }
+
+            List<File> files = new ArrayList<File>();
+            // models
+            List<Object> allModels = new ArrayList<Object>();
+            generateModels(files, allModels);
+            // apis
+            List<Object> allOperations = new ArrayList<Object>();
+            generateApis(files, allOperations, allModels);
+
+            // supporting files
+            try (GenerationMetrics.Sample sample = metrics.phase(GenerationMetrics.SUPPORTING_FILES)) {
+                Map<String, Object> bundle = invokeDefaultGenerator(DefaultGeneratorSteps.BUILD_SUPPORT_FILE_BUNDLE, allOperations,
+                        allModels);
+                generateSupportingFiles(files, bundle);
+            }
+            config.processSwagger(swagger);
+
+            if (manifest != null) {
+                try {
+                    manifest.save();
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not write generation manifest", e);
+                }
+                LOGGER.info("Incremental generation: {} files written, {} unchanged files skipped", filesWritten.get(),
+                        filesSkipped.get());
+            }
+            if (specSnapshot != null) {
+                try {
+                    specSnapshot.save(new File(config.getOutputDir()));
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not write spec snapshot", e);
+                }
+            }
+            if (metrics.isEnabled()) {
+                writeMetrics();
+            }
+            return files;
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+            if (config instanceof UnityGenerator) {
+                ((UnityGenerator) config).setMetrics(GenerationMetrics.DISABLED);
+            }
+        }
+    }
+
+    protected void writeMetrics() {
+        try {
+            File report = metrics.writeReport(new File(config.getOutputDir()));
+            LOGGER.info("{}; report written to {}", metrics.summary(), report);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write generation metrics: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public File writeToFile(String filename, String contents) throws IOException {
+        return writeToFile(filename, contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes a rendered or copied file, unless incremental generation finds it unchanged.
+     *
+     * @param filename Output file.
+     * @param contents File content.
+     * @return The output file.
+     * @throws IOException If the file cannot be written.
+     */
+    @SuppressWarnings("try")
+    protected File writeToFile(String filename, byte[] contents) throws IOException {
+        try (GenerationMetrics.Sample sample = metrics.phase(GenerationMetrics.WRITE)) {
+            final File output = new File(filename);
+            if (manifest == null) {
+                write(output, contents);
+                return output;
+            }
+
+            final String hash = GenerationManifest.hash(contents);
+            if (manifest.isUnchanged(output, hash)) {
+                LOGGER.debug("Skipped writing unchanged file {}", filename);
+                filesSkipped.incrementAndGet();
+                return output;
+            }
+
+            write(output, contents);
+            manifest.record(output, hash);
+            filesWritten.incrementAndGet();
+            return output;
+        }
+    }
+
+    private static void write(File output, byte[] contents) throws IOException {
+        FileUtils.writeByteArrayToFile(output, contents);
+        LOGGER.info("writing file " + output);
+    }
+
+    /**
+     * @return The number of files written by the last incremental run.
+     */
+    public int getFilesWritten() {
+        return filesWritten.get();
+    }
+
+    /**
+     * @return The number of unchanged files the last incremental run did not rewrite.
+     */
+    public int getFilesSkipped() {
+        return filesSkipped.get();
+    }
+
+    public GenerationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @param metrics Metrics to record the next run into, e.g. to include the time spent parsing the spec.
+     */
+    public void setMetrics(GenerationMetrics metrics) {
+        this.metrics = metrics != null ? metrics : GenerationMetrics.DISABLED;
+    }
+
+    /**
+     * @param previousSwagger The spec the output folder was generated from, to compare the spec against instead of
+     *        the snapshot kept by the previous run.
+     */
+    public void setPreviousSwagger(Swagger previousSwagger) {
+        this.previousSwagger = previousSwagger;
+    }
+
+    protected boolean isSpecDiffGeneration() {
+        Object value = config.additionalProperties().get(UnityGenerator.SPEC_DIFF_GENERATION);
+        return value != null && Boolean.parseBoolean(value.toString());
+    }
+
+    protected boolean isGenerationMetrics() {
+        Object value = config.additionalProperties().get(UnityGenerator.GENERATION_METRICS);
+        return value != null && Boolean.parseBoolean(value.toString());
+    }
+
+    protected boolean isIncrementalGeneration() {
+        Object value = config.additionalProperties().get(UnityGenerator.INCREMENTAL_GENERATION);
+        return value != null && Boolean.parseBoolean(value.toString());
+    }
+
+    protected int getGenerationThreads() {
+        Object value = config.additionalProperties().get(UnityGenerator.GENERATION_THREADS);
+        if (value == null) {
+            return 1;
+        }
+        int threads = Integer.parseInt(value.toString().trim());
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Runs the given tasks, concurrently if a worker pool is configured, and returns their results in task order.
+     * The first task always runs on the calling thread before the others are submitted, so state which the codegen
+     * initializes lazily on first use (e.g. DefaultCodegen's type aliases) is set up before concurrent calls happen.
+     */
+    protected <T> List<T> execute(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<T>(tasks.size());
+        try {
+            if (executor == null || tasks.size() < 2) {
+                for (Callable<T> task : tasks) {
+                    results.add(task.call());
+                }
+                return results;
+            }
+
+            results.add(tasks.get(0).call());
+            List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size() - 1);
+            for (Callable<T> task : tasks.subList(1, tasks.size())) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Configures the generator and the codegen like {@link DefaultGenerator} does, and takes over what it configured.
+     */
+    protected void configure() {
+        invokeDefaultGenerator(DefaultGeneratorSteps.CONFIGURE_GENERATOR_PROPERTIES);
+        invokeDefaultGenerator(DefaultGeneratorSteps.CONFIGURE_SWAGGER_INFO);
+        generateApis = this.<Boolean> defaultGeneratorField("generateApis");
+        generateModels = this.<Boolean> defaultGeneratorField("generateModels");
+        generateSupportingFiles = this.<Boolean> defaultGeneratorField("generateSupportingFiles");
+        generateApiTests = this.<Boolean> defaultGeneratorField("generateApiTests");
+        generateApiDocumentation = this.<Boolean> defaultGeneratorField("generateApiDocumentation");
+        generateModelTests = this.<Boolean> defaultGeneratorField("generateModelTests");
+        generateModelDocumentation = this.<Boolean> defaultGeneratorField("generateModelDocumentation");
+        generateSwaggerMetadata = this.<Boolean> defaultGeneratorField("generateSwaggerMetadata");
+        basePath = defaultGeneratorField("basePath");
+        basePathWithoutHost = defaultGeneratorField("basePathWithoutHost");
+        contextPath = defaultGeneratorField("contextPath");
+    }
+
+    /**
+     * Makes the vendor extensions of the models, properties and operations of the spec safe to add to from several
+     * threads. swagger-codegen hands these maps on to the codegen models and operations as they are, so e.g. an
+     * operation listed under two tags, or a property of a parent model, shares its map between API groups or models
+     * processed concurrently.
+     */
+    protected static void synchronizeVendorExtensions(Swagger swagger) {
+        if (swagger.getDefinitions() != null) {
+            for (Model model : swagger.getDefinitions().values()) {
+                synchronizeVendorExtensions(model);
+            }
+        }
+        if (swagger.getPaths() != null) {
+            for (Path path : swagger.getPaths().values()) {
+                for (Operation operation : path.getOperations()) {
+                    operation.setVendorExtensions(synchronizedMap(operation.getVendorExtensions()));
+                }
+            }
+        }
+    }
+
+    private static void synchronizeVendorExtensions(Model model) {
+        if (model instanceof AbstractModel) {
+            ((AbstractModel) model).setVendorExtensions(synchronizedMap(model.getVendorExtensions()));
+        }
+        if (model instanceof ComposedModel && ((ComposedModel) model).getAllOf() != null) {
+            for (Model part : ((ComposedModel) model).getAllOf()) {
+                synchronizeVendorExtensions(part);
+            }
+        }
+        if (model instanceof ArrayModel && ((ArrayModel) model).getItems() != null) {
+            synchronizeVendorExtensions(((ArrayModel) model).getItems());
+        }
+        if (model.getProperties() != null) {
+            for (Property property : model.getProperties().values()) {
+                synchronizeVendorExtensions(property);
+            }
+        }
+    }
+
+    private static void synchronizeVendorExtensions(Property property) {
+        if (property instanceof AbstractProperty) {
+            ((AbstractProperty) property).setVendorExtensions(synchronizedMap(property.getVendorExtensions()));
+        }
+        if (property instanceof ArrayProperty && ((ArrayProperty) property).getItems() != null) {
+            synchronizeVendorExtensions(((ArrayProperty) property).getItems());
+        } else if (property instanceof MapProperty && ((MapProperty) property).getAdditionalProperties() != null) {
+            synchronizeVendorExtensions(((MapProperty) property).getAdditionalProperties());
+        } else if (property instanceof ObjectProperty && ((ObjectProperty) property).getProperties() != null) {
+            for (Property child : ((ObjectProperty) property).getProperties().values()) {
+                synchronizeVendorExtensions(child);
+            }
+        }
+    }
+
+    private static Map<String, Object> synchronizedMap(Map<String, Object> map) {
+        // a copy, as the map may already be wrapped with another lock when a model is reachable twice
+        return map != null ? Collections.synchronizedMap(new LinkedHashMap<String, Object>(map)) : null;
+    }
+
+    /**
+     * Takes the snapshot of the spec and compares it to the previous one. Everything is generated if there is no
+     * previous snapshot, the settings or templates changed, or only some of the files are selected for generation.
+     */
+    protected void prepareSpecDiff(Map<String, String> options) {
+        File outputDir = new File(config.getOutputDir());
+        if (StringUtils.isNotEmpty(System.getProperty("models")) || StringUtils.isNotEmpty(System.getProperty("apis"))
+                || StringUtils.isNotEmpty(System.getProperty("supportingFiles"))) {
+            // the snapshot would claim files to be up to date which this run does not generate
+            LOGGER.info("Spec diff generation is not supported when selecting files to generate");
+            SpecSnapshot.delete(outputDir);
+            return;
+        }
+
+        String settings = describeSettings(options);
+        specSnapshot = SpecSnapshot.of(swagger, settings, config);
+        SpecSnapshot previous;
+        if (previousSwagger != null) {
+            new InlineModelResolver().flatten(previousSwagger);
+            previous = SpecSnapshot.of(previousSwagger, settings, config);
+        } else {
+            previous = SpecSnapshot.load(outputDir);
+        }
+        if (previous == null || !specSnapshot.settings.equals(previous.settings)) {
+            LOGGER.info("Spec diff generation: no comparable previous spec, generating everything");
+            return;
+        }
+
+        List<String> missingModels = new ArrayList<String>();
+        for (String name : specSnapshot.definitions.keySet()) {
+            if (!isGenerated(modelFiles(name), modelTestFiles(name))) {
+                missingModels.add(name);
+            }
+        }
+        specDiff = new SpecDiff(previous, specSnapshot, missingModels);
+        LOGGER.info("Spec diff generation: rendering {} and processing {} of {} models",
+                specDiff.getRenderedModelCount(), specDiff.getProcessedModelCount(),
+                specSnapshot.definitions.size());
+    }
+
+    /**
+     * Describes everything besides the spec which affects the generated models and APIs: the options, the generator
+     * and its templates. Options which do not affect the output are left out.
+     */
+    protected String describeSettings(Map<String, String> options) {
+        Map<String, String> settings = new TreeMap<String, String>(options);
+        settings.remove(UnityGenerator.GENERATION_THREADS);
+        settings.remove(UnityGenerator.GENERATION_METRICS);
+        settings.remove(UnityGenerator.SPEC_DIFF_GENERATION);
+        settings.put("generator", config.getClass().getName() + " " + ImplementationVersion.read());
+        settings.put("generate", Arrays.asList(generateModelTests, generateModelDocumentation, generateApiTests,
+                generateApiDocumentation).toString());
+
+        // the embedded templates change with the generator version; templates on disk are hashed
+        File templateDir = new File(config.templateDir());
+        if (templateDir.isDirectory()) {
+            Collection<File> templates = new TreeSet<File>(FileUtils.listFiles(templateDir, null, true));
+            for (File template : templates) {
+                try {
+                    settings.put("template " + templateDir.toURI().relativize(template.toURI()).getPath(),
+                            GenerationManifest.hash(FileUtils.readFileToByteArray(template)));
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not read template " + template, e);
+                }
+            }
+        }
+        return settings.toString();
+    }
+
+    /**
+     * @return The files rendered for a model by the model and model documentation templates.
+     */
+    protected List<File> modelFiles(String name) {
+        List<File> files = new ArrayList<File>();
+        for (String templateName : config.modelTemplateFiles().keySet()) {
+            String filename = config.modelFileFolder() + File.separator + config.toModelFilename(name)
+                    + config.modelTemplateFiles().get(templateName);
+            addGeneratedFile(files, filename, config.shouldOverwrite(filename));
+        }
+        if (generateModelDocumentation) {
+            for (String templateName : config.modelDocTemplateFiles().keySet()) {
+                String filename = config.modelDocFileFolder() + File.separator + config.toModelDocFilename(name)
+                        + config.modelDocTemplateFiles().get(templateName);
+                addGeneratedFile(files, filename, config.shouldOverwrite(filename));
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @return The model tests of a model, which are only generated when missing.
+     */
+    protected List<File> modelTestFiles(String name) {
+        List<File> files = new ArrayList<File>();
+        if (generateModelTests) {
+            for (String templateName : config.modelTestTemplateFiles().keySet()) {
+                addGeneratedFile(files, config.modelTestFileFolder() + File.separator
+                        + config.toModelTestFilename(name) + config.modelTestTemplateFiles().get(templateName), true);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @return The files rendered for an API by the API and API documentation templates.
+     */
+    protected List<File> apiFiles(String tag) {
+        List<File> files = new ArrayList<File>();
+        for (String templateName : config.apiTemplateFiles().keySet()) {
+            String filename = config.apiFilename(templateName, tag);
+            addGeneratedFile(files, filename, config.shouldOverwrite(filename));
+        }
+        if (generateApiDocumentation) {
+            for (String templateName : config.apiDocTemplateFiles().keySet()) {
+                String filename = config.apiDocFilename(templateName, tag);
+                addGeneratedFile(files, filename, config.shouldOverwrite(filename));
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @return The API tests of an API, which are only generated when missing.
+     */
+    protected List<File> apiTestFiles(String tag) {
+        List<File> files = new ArrayList<File>();
+        if (generateApiTests) {
+            for (String templateName : config.apiTestTemplateFiles().keySet()) {
+                addGeneratedFile(files, config.apiTestFilename(templateName, tag), true);
+            }
+        }
+        return files;
+    }
+
+    private void addGeneratedFile(List<File> files, String filename, boolean overwritten) {
+        File file = new File(filename.replaceAll("//", "/").replace('/', File.separatorChar));
+        if (overwritten && ignoreProcessor.allowsFile(file)) {
+            files.add(file);
+        }
+    }
+
+    /**
+     * Checks whether files which this run may not render are still there as generated by the previous run, and
+     * keeps them in the manifest.
+     *
+     * @param files Files rendered on every run.
+     * @param tests Tests, which are never overwritten.
+     */
+    protected boolean isGenerated(List<File> files, List<File> tests) {
+        boolean generated = true;
+        for (File file : files) {
+            if (manifest != null ? !manifest.retain(file) : !file.isFile()) {
+                generated = false;
+            }
+        }
+        for (File test : tests) {
+            if (!test.isFile()) {
+                generated = false;
+            }
+        }
+        return generated;
+    }
+
+    /**
+     * @return The processed models of a model which is neither rendered nor needed for post processing the rendered
+     *         ones, as passed to the supporting files.
+     */
+    protected Map<String, Object> stubModels(String name) {
+        CodegenModel cm = new CodegenModel();
+        cm.name = name;
+        cm.classname = config.toModelName(name);
+        cm.classVarName = config.toModelName(name);
+        cm.classFilename = config.toModelFilename(name);
+        Map<String, Object> mo = new HashMap<String, Object>();
+        mo.put("model", cm);
+        mo.put("importPath", config.toModelImport(cm.classname));
+        List<Object> models = new ArrayList<Object>();
+        models.add(mo);
+        Map<String, Object> objs = new HashMap<String, Object>();
+        objs.put("package", config.modelPackage());
+        objs.put("models", models);
+        objs.put("imports", new ArrayList<Map<String, String>>());
+        objs.put("classname", cm.classname);
+        return objs;
+    }
+
+    protected void generateModelTests(List<File> files, Map<String, Object> models, String modelName)
+            throws IOException {
+        // to generate model test files
+        for (String templateName : config.modelTestTemplateFiles().keySet()) {
+            String suffix = config.modelTestTemplateFiles().get(templateName);
+            String filename = config.modelTestFileFolder() + File.separator + config.toModelTestFilename(modelName)
+                    + suffix;
+            // do not overwrite test file that already exists
+            if (new File(filename).exists()) {
+                LOGGER.info("File exists. Skipped overwriting " + filename);
+                continue;
+            }
+            File written = processTemplateToFile(models, templateName, filename);
+            if (written != null) {
+                files.add(written);
+            }
+        }
+    }
+
+    protected void generateModelDocumentation(List<File> files, Map<String, Object> models, String modelName)
+            throws IOException {
+        for (String templateName : config.modelDocTemplateFiles().keySet()) {
+            String suffix = config.modelDocTemplateFiles().get(templateName);
+            String filename = config.modelDocFileFolder() + File.separator + config.toModelDocFilename(modelName)
+                    + suffix;
+            if (!config.shouldOverwrite(filename)) {
+                LOGGER.info("Skipped overwriting " + filename);
+                continue;
+            }
+            File written = processTemplateToFile(models, templateName, filename);
+            if (written != null) {
+                files.add(written);
+            }
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "try" })
+    protected void generateModels(List<File> files, List<Object> allModels) {
+        if (!generateModels) {
+            return;
+        }
+
+        final Map<String, Model> definitions = swagger.getDefinitions();
+        if (definitions == null) {
+            return;
+        }
+
+        String modelNames = System.getProperty("models");
+        Set<String> modelsToGenerate = null;
+        if (modelNames != null && !modelNames.isEmpty()) {
+            modelsToGenerate = new HashSet<String>(Arrays.asList(modelNames.split(",")));
+        }
+
+        Set<String> modelKeys = definitions.keySet();
+        if (modelsToGenerate != null && !modelsToGenerate.isEmpty()) {
+            Set<String> updatedKeys = new HashSet<String>();
+            for (String m : modelKeys) {
+                if (modelsToGenerate.contains(m)) {
+                    updatedKeys.add(m);
+                }
+            }
+            modelKeys = updatedKeys;
+        }
+
+        // store all processed models
+        Map<String, Object> allProcessedModels = new TreeMap<String, Object>(new Comparator<String>() {
+            @Override
+            public int compare(String o1, String o2) {
+                Model model1 = definitions.get(o1);
+                Model model2 = definitions.get(o2);
+
+                int model1InheritanceDepth = getInheritanceDepth(model1);
+                int model2InheritanceDepth = getInheritanceDepth(model2);
+
+                if (model1InheritanceDepth == model2InheritanceDepth) {
+                    return ObjectUtils.compare(config.toModelName(o1), config.toModelName(o2));
+                } else if (model1InheritanceDepth > model2InheritanceDepth) {
+                    return 1;
+                } else {
+                    return -1;
+                }
+            }
+
+            private int getInheritanceDepth(Model model) {
+                int inheritanceDepth = 0;
+                Model parent = getParent(model);
+
+                while (parent != null) {
+                    inheritanceDepth++;
+                    parent = getParent(parent);
+                }
+
+                return inheritanceDepth;
+            }
+
+            private Model getParent(Model model) {
+                if (model instanceof ComposedModel) {
+                    Model parent = ((ComposedModel) model).getParent();
+                    if (parent == null) {
+                        // check for interfaces
+                        List<RefModel> interfaces = ((ComposedModel) model).getInterfaces();
+                        if (interfaces.size() > 0) {
+                            RefModel interf = interfaces.get(0);
+                            return definitions.get(interf.getSimpleRef());
+                        }
+                    }
+                    if (parent != null) {
+                        return definitions.get(parent.getReference());
+                    }
+                }
+
+                return null;
+            }
+        });
+
+        // process models; fromModel and postProcessModels may run concurrently
+        final List<String> processedNames = new ArrayList<String>();
+        final List<String> stubNames = new ArrayList<String>();
+        List<Callable<Map<String, Object>>> processTasks = new ArrayList<Callable<Map<String, Object>>>();
+        for (final String name : modelKeys) {
+            if (config.importMapping().containsKey(name)) {
+                LOGGER.info("Model " + name + " not imported due to import mapping");
+                continue;
+            }
+            if (specDiff != null && !specDiff.isModelProcessed(name)) {
+                stubNames.add(name);
+                continue;
+            }
+            processedNames.add(name);
+            processTasks.add(() -> {
+                try {
+                    Model model = definitions.get(name);
+                    Map<String, Model> modelMap = new HashMap<String, Model>();
+                    modelMap.put(name, model);
+                    Map<String, Object> models = invokeDefaultGenerator(DefaultGeneratorSteps.PROCESS_MODELS, config, modelMap,
+                            definitions);
+                    models.put("classname", config.toModelName(name));
+                    models.putAll(config.additionalProperties());
+                    return models;
+                } catch (Exception e) {
+                    throw new RuntimeException(
+                            "Could not process model '" + name + "'" + ".Please make sure that your schema is correct!",
+                            e);
+                }
+            });
+        }
+        List<Map<String, Object>> processedModels;
+        try (GenerationMetrics.Sample sample = metrics.phase(GenerationMetrics.PROCESS_MODELS)) {
+            processedModels = execute(processTasks);
+        }
+        for (int i = 0; i < processedNames.size(); i++) {
+            allProcessedModels.put(processedNames.get(i), processedModels.get(i));
+        }
+
+        // post process all processed models
+        try (GenerationMetrics.Sample sample = metrics.phase(GenerationMetrics.POST_PROCESS_ALL_MODELS)) {
+            allProcessedModels = config.postProcessAllModels(allProcessedModels);
+        }
+        for (String name : stubNames) {
+            allProcessedModels.put(name, stubModels(name));
+        }
+
+        // generate files based on processed models; rendering and writing may run concurrently
+        List<Callable<List<File>>> renderTasks = new ArrayList<Callable<List<File>>>();
+        for (final String modelName : allProcessedModels.keySet()) {
+            final Map<String, Object> models = (Map<String, Object>) allProcessedModels.get(modelName);
+            models.put("modelPackage", config.modelPackage());
+            Map<String, Object> modelTemplate = (Map<String, Object>) ((List<Object>) models.get("models")).get(0);
+            allModels.add(modelTemplate);
+            if (specDiff != null && !specDiff.isModelRendered(modelName)) {
+                // its files were checked and kept when preparing the diff
+                continue;
+            }
+
+            renderTasks.add(() -> {
+                List<File> written = new ArrayList<File>();
+                try {
+                    for (String templateName : config.modelTemplateFiles().keySet()) {
+                        String suffix = config.modelTemplateFiles().get(templateName);
+                        String filename = config.modelFileFolder() + File.separator
+                                + config.toModelFilename(modelName) + suffix;
+                        if (!config.shouldOverwrite(filename)) {
+                            LOGGER.info("Skipped overwriting " + filename);
+                            continue;
+                        }
+                        File file = processTemplateToFile(models, templateName, filename);
+                        if (file != null) {
+                            written.add(file);
+                        }
+                    }
+                    if (generateModelTests) {
+                        generateModelTests(written, models, modelName);
+                    }
+                    if (generateModelDocumentation) {
+                        // to generate model documentation files
+                        generateModelDocumentation(written, models, modelName);
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException("Could not generate model '" + modelName + "'", e);
+                }
+                return written;
+            });
+        }
+        for (List<File> written : execute(renderTasks)) {
+            files.addAll(written);
+        }
+
+        if (System.getProperty("debugModels") != null) {
+            LOGGER.info("############ Model info ############");
+            Json.prettyPrint(allModels);
+        }
+    }
+
+    @SuppressWarnings("try")
+    protected void generateApis(List<File> files, List<Object> allOperations, final List<Object> allModels) {
+        if (!generateApis) {
+            return;
+        }
+        final Map<String, List<CodegenOperation>> paths;
+        try (GenerationMetrics.Sample sample = metrics.phase(GenerationMetrics.PROCESS_PATHS)) {
+            paths = processPaths(swagger.getPaths());
+        }
+        Set<String> apisToGenerate = null;
+        String apiNames = System.getProperty("apis");
+        if (apiNames != null && !apiNames.isEmpty()) {
+            apisToGenerate = new HashSet<String>(Arrays.asList(apiNames.split(",")));
+        }
+        if (apisToGenerate != null && !apisToGenerate.isEmpty()) {
+            Map<String, List<CodegenOperation>> updatedPaths = new TreeMap<String, List<CodegenOperation>>();
+            for (String m : paths.keySet()) {
+                if (apisToGenerate.contains(m)) {
+                    updatedPaths.put(m, paths.get(m));
+                }
+            }
+            paths.keySet().retainAll(updatedPaths.keySet());
+        }
+
+        // process and render each API group; postProcessOperations and rendering may run concurrently
+        List<Callable<GeneratedApi>> tasks = new ArrayList<Callable<GeneratedApi>>();
+        int rendered = 0;
+        for (final String tag : paths.keySet()) {
+            final boolean render = isApiRendered(tag, paths.get(tag));
+            if (render) {
+                rendered++;
+            }
+            tasks.add(() -> {
+                try {
+                    return generateApi(tag, paths.get(tag), allModels, render);
+                } catch (Exception e) {
+                    throw new RuntimeException("Could not generate api file for '" + tag + "'", e);
+                }
+            });
+        }
+        for (GeneratedApi api : execute(tasks)) {
+            allOperations.add(api.operations);
+            files.addAll(api.files);
+        }
+        if (specDiff != null) {
+            LOGGER.info("Spec diff generation: rendering {} of {} apis", rendered, paths.size());
+        }
+        for (int i = 0; i < allOperations.size() - 1; i++) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> oo = (Map<String, Object>) allOperations.get(i);
+            oo.put("hasMore", "true");
+        }
+
+        if (System.getProperty("debugOperations") != null) {
+            LOGGER.info("############ Operation info ############");
+            Json.prettyPrint(allOperations);
+        }
+    }
+
+    private boolean isApiRendered(String tag, List<CodegenOperation> ops) {
+        if (specDiff == null) {
+            return true;
+        }
+        List<String> keys = new ArrayList<String>(ops.size());
+        for (CodegenOperation op : ops) {
+            keys.add(SpecSnapshot.operationKey(op.httpMethod, op.path));
+        }
+        // check the files first, so that they are kept in the manifest
+        return !isGenerated(apiFiles(tag), apiTestFiles(tag)) || specDiff.isApiRendered(tag, keys, specSnapshot.apis.get(tag));
+    }
+
+    @SuppressWarnings("try")
+    private GeneratedApi generateApi(String tag, List<CodegenOperation> ops, List<Object> allModels, boolean render)
+            throws IOException {
+        GeneratedApi generated = new GeneratedApi();
+        Collections.sort(ops, new Comparator<CodegenOperation>() {
+            @Override
+            public int compare(CodegenOperation one, CodegenOperation another) {
+                return ObjectUtils.compare(one.operationId, another.operationId);
+            }
+        });
+        Map<String, Object> operation;
+        try (GenerationMetrics.Sample sample = metrics.phase(GenerationMetrics.PROCESS_OPERATIONS)) {
+            operation = invokeDefaultGenerator(DefaultGeneratorSteps.PROCESS_OPERATIONS, config, tag, ops, allModels);
+        }
+
+        operation.put("basePath", basePath);
+        operation.put("basePathWithoutHost", basePathWithoutHost);
+        operation.put("contextPath", contextPath);
+        operation.put("baseName", tag);
+        operation.put("apiPackage", config.apiPackage());
+        operation.put("modelPackage", config.modelPackage());
+        operation.putAll(config.additionalProperties());
+        operation.put("classname", config.toApiName(tag));
+        operation.put("classVarName", config.toApiVarName(tag));
+        operation.put("importPath", config.toApiImport(tag));
+        operation.put("classFilename", config.toApiFilename(tag));
+
+        if (!config.vendorExtensions().isEmpty()) {
+            operation.put("vendorExtensions", config.vendorExtensions());
+        }
+
+        // Pass sortParamsByRequiredFlag through to the Mustache template...
+        boolean sortParamsByRequiredFlag = true;
+        if (config.additionalProperties().containsKey(CodegenConstants.SORT_PARAMS_BY_REQUIRED_FLAG)) {
+            sortParamsByRequiredFlag = Boolean.valueOf(
+                    config.additionalProperties().get(CodegenConstants.SORT_PARAMS_BY_REQUIRED_FLAG).toString());
+        }
+        operation.put("sortParamsByRequiredFlag", sortParamsByRequiredFlag);
+
+        invokeDefaultGenerator(DefaultGeneratorSteps.PROCESS_MIME_TYPES, swagger.getConsumes(), operation, "consumes");
+        invokeDefaultGenerator(DefaultGeneratorSteps.PROCESS_MIME_TYPES, swagger.getProduces(), operation, "produces");
+
+        generated.operations = new HashMap<String, Object>(operation);
+        if (!render) {
+            return generated;
+        }
+
+        for (String templateName : config.apiTemplateFiles().keySet()) {
+            String filename = config.apiFilename(templateName, tag);
+            if (!config.shouldOverwrite(filename) && new File(filename).exists()) {
+                LOGGER.info("Skipped overwriting " + filename);
+                continue;
+            }
+
+            File written = processTemplateToFile(operation, templateName, filename);
+            if (written != null) {
+                generated.files.add(written);
+            }
+        }
+
+        if (generateApiTests) {
+            // to generate api test files
+            for (String templateName : config.apiTestTemplateFiles().keySet()) {
+                String filename = config.apiTestFilename(templateName, tag);
+                // do not overwrite test file that already exists
+                if (new File(filename).exists()) {
+                    LOGGER.info("File exists. Skipped overwriting " + filename);
+                    continue;
+                }
+
+                File written = processTemplateToFile(operation, templateName, filename);
+                if (written != null) {
+                    generated.files.add(written);
+                }
+            }
+        }
+
+        if (generateApiDocumentation) {
+            // to generate api documentation files
+            for (String templateName : config.apiDocTemplateFiles().keySet()) {
+                String filename = config.apiDocFilename(templateName, tag);
+                if (!config.shouldOverwrite(filename) && new File(filename).exists()) {
+                    LOGGER.info("Skipped overwriting " + filename);
+                    continue;
+                }
+
+                File written = processTemplateToFile(operation, templateName, filename);
+                if (written != null) {
+                    generated.files.add(written);
+                }
+            }
+        }
+        return generated;
+    }
+
+    @SuppressWarnings("try")
+    protected void generateSupportingFiles(List<File> files, Map<String, Object> bundle) {
+        if (!generateSupportingFiles) {
+            return;
+        }
+        Set<String> supportingFilesToGenerate = null;
+        String supportingFiles = System.getProperty("supportingFiles");
+        if (supportingFiles != null && !supportingFiles.isEmpty()) {
+            supportingFilesToGenerate = new HashSet<String>(Arrays.asList(supportingFiles.split(",")));
+        }
+
+        for (SupportingFile support : config.supportingFiles()) {
+            try {
+                String outputFolder = config.outputFolder();
+                if (StringUtils.isNotEmpty(support.folder)) {
+                    outputFolder += File.separator + support.folder;
+                }
+                File of = new File(outputFolder);
+                if (!of.isDirectory()) {
+                    of.mkdirs();
+                }
+                String outputFilename = outputFolder + File.separator
+                        + support.destinationFilename.replace('/', File.separatorChar);
+                if (!config.shouldOverwrite(outputFilename)) {
+                    LOGGER.info("Skipped overwriting " + outputFilename);
+                    continue;
+                }
+                String templateFile;
+                if (support instanceof GlobalSupportingFile) {
+                    templateFile = config.getCommonTemplateDir() + File.separator + support.templateFile;
+                } else {
+                    templateFile = getFullTemplateFile(config, support.templateFile);
+                }
+                boolean shouldGenerate = true;
+                if (supportingFilesToGenerate != null && !supportingFilesToGenerate.isEmpty()) {
+                    shouldGenerate = supportingFilesToGenerate.contains(support.destinationFilename);
+                }
+                if (!shouldGenerate) {
+                    continue;
+                }
+
+                if (ignoreProcessor.allowsFile(new File(outputFilename))) {
+                    if (templateFile.endsWith("mustache")) {
+                        String contents;
+                        try (GenerationMetrics.Sample sample = metrics.template(support.templateFile)) {
+                            contents = TemplateCache.execute(compileTemplate(templateFile), bundle, metrics);
+                        }
+
+                        writeToFile(outputFilename, contents);
+                        files.add(new File(outputFilename));
+                    } else {
+                        InputStream in = null;
+
+                        try {
+                            in = new FileInputStream(templateFile);
+                        } catch (Exception e) {
+                            // continue
+                        }
+                        if (in == null) {
+                            in = this.getClass().getClassLoader().getResourceAsStream(getCPResourcePath(templateFile));
+                        }
+                        if (in != null) {
+                            byte[] contents;
+                            try {
+                                contents = IOUtils.toByteArray(in);
+                            } finally {
+                                in.close();
+                            }
+                            // copied files are tracked by the manifest like rendered ones
+                            writeToFile(outputFilename, contents);
+                            files.add(new File(outputFilename));
+                        } else {
+                            LOGGER.error("can't open " + templateFile + " for input");
+                        }
+                    }
+                } else {
+                    LOGGER.info("Skipped generation of " + outputFilename
+                            + " due to rule in .swagger-codegen-ignore");
+                }
+            } catch (Exception e) {
+                throw new RuntimeException("Could not generate supporting file '" + support + "'", e);
+            }
+        }
+
+        // Consider .swagger-codegen-ignore a supporting file
+        // Output .swagger-codegen-ignore if it doesn't exist and wasn't explicitly created by a generator
+        final String swaggerCodegenIgnore = ".swagger-codegen-ignore";
+        String ignoreFileNameTarget = config.outputFolder() + File.separator + swaggerCodegenIgnore;
+        File ignoreFile = new File(ignoreFileNameTarget);
+        if (generateSwaggerMetadata && !ignoreFile.exists()) {
+            String ignoreFileNameSource = File.separator + config.getCommonTemplateDir() + File.separator
+                    + swaggerCodegenIgnore;
+            String ignoreFileContents = readResourceContents(ignoreFileNameSource);
+            try {
+                writeToFile(ignoreFileNameTarget, ignoreFileContents);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not generate supporting file '" + swaggerCodegenIgnore + "'", e);
+            }
+            files.add(ignoreFile);
+        }
+
+        if (generateSwaggerMetadata) {
+            final String swaggerVersionMetadata = config.outputFolder() + File.separator + ".swagger-codegen"
+                    + File.separator + "VERSION";
+            File swaggerVersionMetadataFile = new File(swaggerVersionMetadata);
+            try {
+                writeToFile(swaggerVersionMetadata, ImplementationVersion.read());
+                files.add(swaggerVersionMetadataFile);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not generate supporting file '" + swaggerVersionMetadata + "'", e);
+            }
+        }
+    }
+
+    @SuppressWarnings("try")
+    protected File processTemplateToFile(Map<String, Object> templateData, String templateName,
+            String outputFilename) throws IOException {
+        String adjustedOutputFilename = outputFilename.replaceAll("//", "/").replace('/', File.separatorChar);
+        if (ignoreProcessor.allowsFile(new File(adjustedOutputFilename))) {
+            String contents;
+            // includes compiling the template and its partials on first use
+            try (GenerationMetrics.Sample sample = metrics.template(templateName)) {
+                Template template = compileTemplate(getFullTemplateFile(config, templateName));
+                contents = TemplateCache.execute(template, templateData, metrics);
+            }
+
+            writeToFile(adjustedOutputFilename, contents);
+            return new File(adjustedOutputFilename);
+        }
+
+        LOGGER.info("Skipped generation of " + adjustedOutputFilename + " due to rule in .swagger-codegen-ignore");
+        return null;
+    }
+
+    /**
+     * Returns the compiled template from the {@link TemplateCache}, which is checked for changed template files once
+     * per template and run.
+     *
+     * @param templateFile Template path, as resolved by {@link #getFullTemplateFile(CodegenConfig, String)}.
+     * @return The compiled template.
+     */
+    protected Template compileTemplate(String templateFile) {
+        return templates.computeIfAbsent(templateFile, file -> TemplateCache.shared().get(config, file));
+    }
+
+    /**
+     * Fails unless the swagger-codegen on the class path is {@link #SWAGGER_CODEGEN_VERSION}. A class path without
+     * version information, e.g. classes not packaged as a jar, is accepted, and fails when a reused step is missing.
+     *
+     * @throws IllegalStateException If another swagger-codegen version is on the class path.
+     */
+    public static void checkSwaggerCodegenVersion() {
+        String version = ImplementationVersion.read();
+        if (!SWAGGER_CODEGEN_VERSION.equals(version) && !"unset".equals(version)) {
+            throw new IllegalStateException("swagger-codegen " + SWAGGER_CODEGEN_VERSION + " is required, but "
+                    + version + " is on the class path");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T invokeDefaultGenerator(Method method, Object... args) {
+        try {
+            return (T) method.invoke(this, args);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T defaultGeneratorField(String name) {
+        try {
+            return (T) DefaultGeneratorSteps.field(name).get(this);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The private members of {@link DefaultGenerator} which are reused, looked up on first use after
+     * {@link #checkSwaggerCodegenVersion()}, so that loading the generator never fails on its own.
+     */
+    private static final class DefaultGeneratorSteps {
+        static final Method CONFIGURE_GENERATOR_PROPERTIES = method("configureGeneratorProperties");
+        static final Method CONFIGURE_SWAGGER_INFO = method("configureSwaggerInfo");
+        static final Method PROCESS_MODELS = method("processModels", CodegenConfig.class, Map.class, Map.class);
+        static final Method PROCESS_OPERATIONS = method("processOperations", CodegenConfig.class, String.class,
+                List.class, List.class);
+        static final Method PROCESS_MIME_TYPES = method("processMimeTypes", List.class, Map.class, String.class);
+        static final Method BUILD_SUPPORT_FILE_BUNDLE = method("buildSupportFileBundle", List.class, List.class);
+
+        private static Method method(String name, Class<?>... parameterTypes) {
+            try {
+                Method method = DefaultGenerator.class.getDeclaredMethod(name, parameterTypes);
+                method.setAccessible(true);
+                return method;
+            } catch (NoSuchMethodException e) {
+                throw missing(name, e);
+            }
+        }
+
+        static Field field(String name) {
+            try {
+                Field field = DefaultGenerator.class.getDeclaredField(name);
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException e) {
+                throw missing(name, e);
+            }
+        }
+
+        private static IllegalStateException missing(String name, Exception cause) {
+            return new IllegalStateException("DefaultGenerator." + name + " not found, swagger-codegen "
+                    + SWAGGER_CODEGEN_VERSION + " is required", cause);
+        }
+    }
+
+    private static class GeneratedApi {
+        Map<String, Object> operations;
+        final List<File> files = new ArrayList<File>();
+    }
+}
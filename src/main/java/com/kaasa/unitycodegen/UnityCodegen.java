@@ -0,0 +1,189 @@
+package com.kaasa.unitycodegen;
+
+import config.Config;
+import config.ConfigParser;
+import io.swagger.codegen.CliOption;
+import io.swagger.codegen.ClientOptInput;
+import io.swagger.codegen.ClientOpts;
+import io.swagger.codegen.CodegenConstants;
+import io.swagger.codegen.auth.AuthParser;
+import io.swagger.models.Swagger;
+import io.swagger.models.auth.AuthorizationValue;
+import io.swagger.parser.SwaggerParser;
+import org.apache.commons.cli.BasicParser;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Command line entry point running {@link UnityGenerator} through {@link UnityClientGenerator}, so that the Unity
+ * specific generation features (e.g. incremental generation) are available outside of the stock swagger-codegen CLI.
+ *
+ * Usage mirrors <code>io.swagger.codegen.Codegen</code>, without the need to pass a language:
+ * <pre>
+ * java -cp swagger-codegen-cli.jar:unity-swagger-codegen.jar com.kaasa.unitycodegen.UnityCodegen -i swagger.yaml -o ./out
+ * </pre>
+ *
+ * With <code>-w</code>, it keeps running and regenerates whenever the spec changes, see {@link SpecWatcher}.
+ */
+public class UnityCodegen {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UnityCodegen.class);
+
+    public static void main(String[] args) {
+        Options options = new Options();
+        options.addOption("h", "help", false, "shows this message");
+        options.addOption("o", "output", true, "where to write the generated files");
+        options.addOption("i", "input-spec", true, "location of the swagger spec, as URL or file");
+        options.addOption("t", "template-dir", true, "folder containing the template files");
+        options.addOption("a", "auth", true,
+                "adds authorization headers when fetching the swagger definitions remotely. Pass in a URL-encoded string of name:header with a comma separating multiple values");
+        options.addOption("c", "config", true, "location of the configuration file");
+        options.addOption("n", "incremental", false,
+                "only write files whose content changed since the previous generation into the same output folder");
+        options.addOption("j", "threads", true,
+                "number of threads processing and rendering models and apis, 0 for one per available processor");
+        options.addOption("d", "diff", false,
+                "only process and render the models and apis affected by the spec changes since the previous generation into the same output folder");
+        options.addOption("p", "previous-spec", true,
+                "location of the spec the output folder was generated from, to diff against instead of the kept snapshot; implies -d");
+        options.addOption("m", "metrics", false,
+                "write timings of the generation phases, templates, models and operations to .swagger-codegen/unity-metrics.json");
+
+        options.addOption("w", "watch", false,
+                "keep running and regenerate whenever the spec file or the template folder changes");
+        options.addOption("W", "watch-files", true,
+                "comma separated files or folders watched in addition to the spec and template folder, e.g. specs referenced by the spec; implies -w");
+
+        final CommandLine cmd;
+        try {
+            cmd = new BasicParser().parse(options, args);
+        } catch (ParseException e) {
+            usage(options, new UnityGenerator());
+            return;
+        }
+        if (cmd.hasOption("h") || !cmd.hasOption("i")) {
+            usage(options, new UnityGenerator());
+            return;
+        }
+
+        if (!cmd.hasOption("w") && !cmd.hasOption("W")) {
+            try {
+                generate(cmd, cmd.getOptionValue("p"));
+            } catch (Exception e) {
+                LOGGER.error(e.getMessage(), e);
+                System.exit(1);
+            }
+            return;
+        }
+
+        File spec = new File(cmd.getOptionValue("i"));
+        if (!spec.isFile()) {
+            LOGGER.error("Watching requires the spec to be a local file: " + cmd.getOptionValue("i"));
+            return;
+        }
+        List<File> watched = new ArrayList<File>();
+        watched.add(spec);
+        if (cmd.hasOption("t")) {
+            watched.add(new File(cmd.getOptionValue("t")));
+        }
+        if (cmd.hasOption("c")) {
+            watched.add(new File(cmd.getOptionValue("c")));
+        }
+        if (cmd.hasOption("W")) {
+            for (String file : cmd.getOptionValue("W").split(",")) {
+                watched.add(new File(file.trim()));
+            }
+        }
+        final AtomicBoolean first = new AtomicBoolean(true);
+        try {
+            new SpecWatcher(watched, () -> {
+                // the previous spec only applies to the output of the previous run, later runs use the snapshot
+                generate(cmd, first.getAndSet(false) ? cmd.getOptionValue("p") : null);
+            }).run();
+        } catch (IOException e) {
+            LOGGER.error("Could not watch " + watched + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Runs a generation as configured on the command line. The generator is created anew for every run, as
+     * processing its options is not repeatable.
+     *
+     * @param cmd The command line.
+     * @param previousSpec Location of the spec the output was generated from, or null.
+     */
+    @SuppressWarnings("try")
+    static void generate(CommandLine cmd, String previousSpec) {
+        UnityClientGenerator.checkSwaggerCodegenVersion();
+        ClientOptInput clientOptInput = new ClientOptInput();
+        ClientOpts clientOpts = new ClientOpts();
+        UnityGenerator config = new UnityGenerator();
+        Swagger swagger;
+        Swagger previousSwagger = null;
+        GenerationMetrics metrics = GenerationMetrics.DISABLED;
+        List<AuthorizationValue> auths = null;
+
+        if (cmd.hasOption("a")) {
+            auths = AuthParser.parse(cmd.getOptionValue("a"));
+        }
+        if (cmd.hasOption("o")) {
+            config.setOutputDir(cmd.getOptionValue("o"));
+        }
+        if (cmd.hasOption("c")) {
+            Config genConfig = ConfigParser.read(cmd.getOptionValue("c"));
+            if (genConfig != null) {
+                for (CliOption langCliOption : config.cliOptions()) {
+                    if (genConfig.hasOption(langCliOption.getOpt())) {
+                        config.additionalProperties().put(langCliOption.getOpt(),
+                                genConfig.getOption(langCliOption.getOpt()));
+                    }
+                }
+            }
+        }
+        if (cmd.hasOption("t")) {
+            clientOpts.getProperties().put(CodegenConstants.TEMPLATE_DIR, cmd.getOptionValue("t"));
+        }
+        if (cmd.hasOption("n")) {
+            config.additionalProperties().put(UnityGenerator.INCREMENTAL_GENERATION, true);
+        }
+        if (cmd.hasOption("j")) {
+            config.additionalProperties().put(UnityGenerator.GENERATION_THREADS, cmd.getOptionValue("j"));
+        }
+        if (cmd.hasOption("d") || cmd.hasOption("p")) {
+            config.additionalProperties().put(UnityGenerator.SPEC_DIFF_GENERATION, true);
+        }
+        if (cmd.hasOption("m")) {
+            config.additionalProperties().put(UnityGenerator.GENERATION_METRICS, true);
+            metrics = new GenerationMetrics();
+        }
+        try (GenerationMetrics.Sample sample = metrics.phase(GenerationMetrics.PARSE)) {
+            swagger = new SwaggerParser().read(cmd.getOptionValue("i"), auths, true);
+            if (previousSpec != null) {
+                previousSwagger = new SwaggerParser().read(previousSpec, auths, true);
+            }
+        }
+        if (swagger == null) {
+            throw new RuntimeException("Could not read the spec " + cmd.getOptionValue("i"));
+        }
+
+        clientOptInput.config(config).opts(clientOpts).swagger(swagger);
+        UnityClientGenerator generator = new UnityClientGenerator();
+        generator.setMetrics(metrics);
+        generator.setPreviousSwagger(previousSwagger);
+        generator.opts(clientOptInput).generate();
+    }
+
+    static void usage(Options options, UnityGenerator config) {
+        HelpFormatter formatter = new HelpFormatter();
+        formatter.printHelp("UnityCodegen", config.getHelp(), options, null);
+    }
+}
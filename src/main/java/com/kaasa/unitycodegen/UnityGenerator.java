@@ -3,11 +3,17 @@ package com.kaasa.unitycodegen;
 import com.samskivert.mustache.Mustache;
 import io.swagger.codegen.*;
 import io.swagger.models.Model;
+import io.swagger.models.Operation;
+import io.swagger.models.Swagger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
@@ -15,21 +21,59 @@ public class UnityGenerator extends AbstractCSharpCodegen {
     @SuppressWarnings({ "hiding" })
     private static final Logger LOGGER = LoggerFactory.getLogger(UnityGenerator.class);
 
+    public static final String INCREMENTAL_GENERATION = "incrementalGeneration";
+    public static final String INCREMENTAL_GENERATION_DESC = "Only write generated files whose content changed since the previous run into the same output folder (requires running through UnityCodegen). Also derives a stable project GUID from the package name.";
+    public static final String GENERATION_THREADS = "generationThreads";
+    public static final String GENERATION_THREADS_DESC = "Number of threads processing and rendering models and apis (requires running through UnityCodegen). 1 generates serially, 0 uses one thread per available processor.";
+    public static final String SPEC_DIFF_GENERATION = "specDiffGeneration";
+    public static final String SPEC_DIFF_GENERATION_DESC = "Only process and render the models and apis affected by the spec changes since the previous run into the same output folder (requires running through UnityCodegen). Keeps a snapshot of the spec in .swagger-codegen/unity-spec.json.";
+    public static final String GENERATION_METRICS = "generationMetrics";
+    public static final String GENERATION_METRICS_DESC = "Time the generation phases, templates, models and operations and write the report to .swagger-codegen/unity-metrics.json in the output folder (requires running through UnityCodegen).";
+    public static final String JSON_CONVERTERS = "jsonConverters";
+    public static final String JSON_CONVERTERS_DESC = "Generate a JsonConverter for every model, which reads and writes its properties without reflection, and register them in the serializer settings of the ApiClient (requires Json.NET 8.0 or later).";
+    public static final String TASK_ASYNC = "taskAsync";
+    public static final String TASK_ASYNC_DESC = "Generate awaitable Task-based Async variants of every operation, with cancellation token support, next to the coroutines (requires the .NET 4.x scripting runtime).";
+    public static final String HTTP_CLIENT_TRANSPORT = "httpClientTransport";
+    public static final String HTTP_CLIENT_TRANSPORT_DESC = "Also generate the pluggable transport of the Task-based methods and its HttpClient implementation, which sends requests from any thread, for dedicated servers and headless tools (implies taskAsync). Without it, only the UnityWebRequest transport is generated.";
+
     protected String packageGuid = "{" + java.util.UUID.randomUUID().toString().toUpperCase() + "}";
     protected String clientPackage = "IO.Swagger.Client";
     protected String localVariablePrefix = "";
     protected String apiDocPath = "docs/";
     protected String modelDocPath = "docs/";
 
+    private static final Pattern MINUS = Pattern.compile("-");
+    private static final Pattern PLUS = Pattern.compile("\\+");
+    private static final Pattern DOT = Pattern.compile("\\.");
+    private static final Pattern NON_WORD_CHARACTERS = Pattern.compile("\\W+");
+
     protected Map<Character, String> regexModifiers;
 
+    // parent models built by fromModel, shared by all their child models during a generation run
+    protected final ConcurrentMap<String, ParentModel> parentModels = new ConcurrentHashMap<String, ParentModel>();
+
     // By default, generated code is considered public
     protected boolean nonPublicApi = Boolean.FALSE;
     protected boolean hideGenerationTimestamp = Boolean.TRUE;
+    protected boolean incrementalGeneration = Boolean.FALSE;
+    protected int generationThreads = 1;
+    protected boolean specDiffGeneration = Boolean.FALSE;
+    protected boolean generationMetrics = Boolean.FALSE;
+    protected boolean jsonConverters = Boolean.FALSE;
+    protected boolean taskAsync = Boolean.FALSE;
+    protected boolean httpClientTransport = Boolean.FALSE;
+
+    // the spec being generated, flattened by the time models are processed
+    protected Swagger swagger;
+
+    // set by UnityClientGenerator for the duration of a run
+    protected volatile GenerationMetrics metrics = GenerationMetrics.DISABLED;
 
     public UnityGenerator() {
         super();
         supportsInheritance = true;
+        // the embedded templates live in "Unity", which getName() does not match on case sensitive file systems
+        embeddedTemplateDir = templateDir = "Unity";
         modelTemplateFiles.put("model.mustache", ".cs");
         apiTemplateFiles.put("api.mustache", ".cs");
 
@@ -93,6 +137,20 @@ public class UnityGenerator extends AbstractCSharpCodegen {
         addSwitch(CodegenConstants.NETCORE_PROJECT_FILE, CodegenConstants.NETCORE_PROJECT_FILE_DESC,
                 this.netCoreProjectFileFlag);
 
+        addSwitch(INCREMENTAL_GENERATION, INCREMENTAL_GENERATION_DESC, this.incrementalGeneration);
+
+        addOption(GENERATION_THREADS, GENERATION_THREADS_DESC, String.valueOf(this.generationThreads));
+
+        addSwitch(SPEC_DIFF_GENERATION, SPEC_DIFF_GENERATION_DESC, this.specDiffGeneration);
+
+        addSwitch(GENERATION_METRICS, GENERATION_METRICS_DESC, this.generationMetrics);
+
+        addSwitch(JSON_CONVERTERS, JSON_CONVERTERS_DESC, this.jsonConverters);
+
+        addSwitch(TASK_ASYNC, TASK_ASYNC_DESC, this.taskAsync);
+
+        addSwitch(HTTP_CLIENT_TRANSPORT, HTTP_CLIENT_TRANSPORT_DESC, this.httpClientTransport);
+
         regexModifiers = new HashMap<Character, String>();
         regexModifiers.put('i', "IgnoreCase");
         regexModifiers.put('m', "Multiline");
@@ -153,9 +211,60 @@ public class UnityGenerator extends AbstractCSharpCodegen {
             additionalProperties.put(CodegenConstants.OPTIONAL_PROJECT_FILE, optionalProjectFileFlag);
         }
 
+        if (additionalProperties.containsKey(INCREMENTAL_GENERATION)) {
+            setIncrementalGeneration(convertPropertyToBooleanAndWriteBack(INCREMENTAL_GENERATION));
+        } else {
+            additionalProperties.put(INCREMENTAL_GENERATION, incrementalGeneration);
+        }
+
+        if (additionalProperties.containsKey(GENERATION_THREADS)) {
+            setGenerationThreads(Integer.parseInt(additionalProperties.get(GENERATION_THREADS).toString().trim()));
+        }
+        additionalProperties.put(GENERATION_THREADS, generationThreads);
+
+        if (additionalProperties.containsKey(SPEC_DIFF_GENERATION)) {
+            setSpecDiffGeneration(convertPropertyToBooleanAndWriteBack(SPEC_DIFF_GENERATION));
+        } else {
+            additionalProperties.put(SPEC_DIFF_GENERATION, specDiffGeneration);
+        }
+
+        if (additionalProperties.containsKey(GENERATION_METRICS)) {
+            setGenerationMetrics(convertPropertyToBooleanAndWriteBack(GENERATION_METRICS));
+        } else {
+            additionalProperties.put(GENERATION_METRICS, generationMetrics);
+        }
+
+        if (additionalProperties.containsKey(JSON_CONVERTERS)) {
+            setJsonConverters(convertPropertyToBooleanAndWriteBack(JSON_CONVERTERS));
+        } else {
+            additionalProperties.put(JSON_CONVERTERS, jsonConverters);
+        }
+
+        if (additionalProperties.containsKey(TASK_ASYNC)) {
+            setTaskAsync(convertPropertyToBooleanAndWriteBack(TASK_ASYNC));
+        } else {
+            additionalProperties.put(TASK_ASYNC, taskAsync);
+        }
+
+        if (additionalProperties.containsKey(HTTP_CLIENT_TRANSPORT)) {
+            setHttpClientTransport(convertPropertyToBooleanAndWriteBack(HTTP_CLIENT_TRANSPORT));
+        } else {
+            additionalProperties.put(HTTP_CLIENT_TRANSPORT, httpClientTransport);
+        }
+        if (httpClientTransport && !taskAsync) {
+            // the transport is only used by the Task-based methods
+            setTaskAsync(true);
+            additionalProperties.put(TASK_ASYNC, taskAsync);
+        }
+
         if (additionalProperties.containsKey(CodegenConstants.OPTIONAL_PROJECT_GUID)) {
             setPackageGuid((String) additionalProperties.get(CodegenConstants.OPTIONAL_PROJECT_GUID));
         } else {
+            if (incrementalGeneration) {
+                // a random GUID would change the project and solution files on every run
+                setPackageGuid("{" + UUID.nameUUIDFromBytes(packageName.getBytes(StandardCharsets.UTF_8)).toString()
+                        .toUpperCase() + "}");
+            }
             additionalProperties.put(CodegenConstants.OPTIONAL_PROJECT_GUID, packageGuid);
         }
 
@@ -202,6 +311,34 @@ public class UnityGenerator extends AbstractCSharpCodegen {
         supportingFiles.add(new SupportingFile("ExceptionFactory.mustache", clientPackageDir, "ExceptionFactory.cs"));
         supportingFiles
                 .add(new SupportingFile("SwaggerDateConverter.mustache", clientPackageDir, "SwaggerDateConverter.cs"));
+        supportingFiles.add(new SupportingFile("BufferPool.mustache", clientPackageDir, "BufferPool.cs"));
+        supportingFiles.add(new SupportingFile("Utf8BytesReader.mustache", clientPackageDir, "Utf8BytesReader.cs"));
+        supportingFiles.add(new SupportingFile("Utf8BytesWriter.mustache", clientPackageDir, "Utf8BytesWriter.cs"));
+        supportingFiles.add(new SupportingFile("UrlBuilder.mustache", clientPackageDir, "UrlBuilder.cs"));
+        supportingFiles.add(new SupportingFile("VersionedDictionary.mustache", clientPackageDir, "VersionedDictionary.cs"));
+        supportingFiles.add(new SupportingFile("HeaderSnapshot.mustache", clientPackageDir, "HeaderSnapshot.cs"));
+        supportingFiles.add(new SupportingFile("ResponseCache.mustache", clientPackageDir, "ResponseCache.cs"));
+        supportingFiles.add(new SupportingFile("RequestCoalescer.mustache", clientPackageDir, "RequestCoalescer.cs"));
+        supportingFiles.add(new SupportingFile("RequestOptions.mustache", clientPackageDir, "RequestOptions.cs"));
+        supportingFiles.add(new SupportingFile("RequestScheduler.mustache", clientPackageDir, "RequestScheduler.cs"));
+        supportingFiles.add(new SupportingFile("ResponseDispatcher.mustache", clientPackageDir, "ResponseDispatcher.cs"));
+        supportingFiles.add(new SupportingFile("FileDownloadHandler.mustache", clientPackageDir, "FileDownloadHandler.cs"));
+        supportingFiles.add(new SupportingFile("MultipartFormStreamSection.mustache", clientPackageDir,
+                "MultipartFormStreamSection.cs"));
+        supportingFiles.add(new SupportingFile("Compression.mustache", clientPackageDir, "Compression.cs"));
+        if (jsonConverters) {
+            supportingFiles.add(
+                    new SupportingFile("JsonModelConverters.mustache", clientPackageDir, "JsonModelConverters.cs"));
+        }
+        if (taskAsync) {
+            supportingFiles.add(
+                    new SupportingFile("AsyncOperationAwaiter.mustache", clientPackageDir, "AsyncOperationAwaiter.cs"));
+        }
+        if (httpClientTransport) {
+            supportingFiles.add(new SupportingFile("ApiTransport.mustache", clientPackageDir, "ApiTransport.cs"));
+            supportingFiles.add(
+                    new SupportingFile("HttpClientTransport.mustache", clientPackageDir, "HttpClientTransport.cs"));
+        }
 
         if (Boolean.FALSE.equals(this.netCoreProjectFileFlag)) {
             supportingFiles.add(new SupportingFile("compile.mustache", "", "build.bat"));
@@ -272,6 +409,7 @@ public class UnityGenerator extends AbstractCSharpCodegen {
         if ("original".equals(naming) || "camelCase".equals(naming) || "PascalCase".equals(naming)
                 || "snake_case".equals(naming)) {
             this.modelPropertyNaming = naming;
+            clearNameCaches();
         } else {
             throw new IllegalArgumentException("Invalid model property naming '" + naming
                     + "'. Must be 'original', 'camelCase', " + "'PascalCase' or 'snake_case'");
@@ -283,13 +421,53 @@ public class UnityGenerator extends AbstractCSharpCodegen {
     }
 
     @Override
+    @SuppressWarnings("try")
+    public Map<String, Object> postProcessModels(Map<String, Object> objs) {
+        try (GenerationMetrics.Sample sample = metrics.phase(GenerationMetrics.POST_PROCESS_MODELS)) {
+            return super.postProcessModels(objs);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("try")
     public Map<String, Object> postProcessOperations(Map<String, Object> objs) {
+        try (GenerationMetrics.Sample sample = metrics.phase(GenerationMetrics.POST_PROCESS_OPERATIONS)) {
+            return processOperations(objs);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> processOperations(Map<String, Object> objs) {
         super.postProcessOperations(objs);
         if (objs != null) {
             Map<String, Object> operations = (Map<String, Object>) objs.get("operations");
             if (operations != null) {
                 List<CodegenOperation> ops = (List<CodegenOperation>) operations.get("operation");
                 for (CodegenOperation operation : ops) {
+                    // the headers only depend on the spec, so they are not negotiated on every call
+                    operation.vendorExtensions.put(MediaTypes.CONTENT_TYPE,
+                            MediaTypes.escapeLiteral(MediaTypes.selectContentType(operation.consumes)));
+                    String accept = MediaTypes.selectAccept(operation.produces);
+                    if (accept != null) {
+                        operation.vendorExtensions.put(MediaTypes.ACCEPT, MediaTypes.escapeLiteral(accept));
+                    }
+                    operation.vendorExtensions.put(PathTemplate.SEGMENTS, PathTemplate.segments(operation));
+                    String unshareable = ResponseSharing.process(operation);
+                    if (unshareable != null) {
+                        LOGGER.warn("Ignoring {} of {}, only GET operations returning a value without body or form "
+                                + "parameters share their responses", unshareable, operation.operationId);
+                    }
+                    Object priority = OperationPriority.process(operation);
+                    if (priority != null) {
+                        LOGGER.warn("Ignoring {}: {} of {}, expected critical, high, normal or low",
+                                OperationPriority.EXTENSION, priority, operation.operationId);
+                    }
+                    Object compression = OperationCompression.process(operation);
+                    if (compression != null) {
+                        LOGGER.warn("Ignoring {}: {} of {}, expected off, gzip or deflate on operations with a body or "
+                                + "form parameters", OperationCompression.EXTENSION, compression, operation.operationId);
+                    }
+                    ListChunking.process(operation);
                     if (operation.returnType != null) {
                         operation.returnContainer = operation.returnType;
                         if (this.returnICollection && (operation.returnType.startsWith("List")
@@ -328,14 +506,31 @@ public class UnityGenerator extends AbstractCSharpCodegen {
     }
 
     @Override
+    @SuppressWarnings("try")
     public CodegenModel fromModel(String name, Model model, Map<String, Model> allDefinitions) {
+        try (GenerationMetrics.Sample sample = metrics.model(name)) {
+            return buildModel(name, model, allDefinitions);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    public CodegenOperation fromOperation(String path, String httpMethod, Operation operation,
+            Map<String, Model> definitions, Swagger swagger) {
+        try (GenerationMetrics.Sample sample = metrics.operation(httpMethod.toUpperCase(Locale.ROOT) + " " + path)) {
+            return super.fromOperation(path, httpMethod, operation, definitions, swagger);
+        }
+    }
+
+    private CodegenModel buildModel(String name, Model model, Map<String, Model> allDefinitions) {
         CodegenModel codegenModel = super.fromModel(name, model, allDefinitions);
         if (allDefinitions != null && codegenModel != null && codegenModel.parent != null) {
             final Model parentModel = allDefinitions.get(toModelName(codegenModel.parent));
             if (parentModel != null) {
-                final CodegenModel parentCodegenModel = super.fromModel(codegenModel.parent, parentModel);
+                final ParentModel parent = getParentModel(codegenModel.parent, parentModel);
+                final CodegenModel parentCodegenModel = parent.codegenModel;
                 if (codegenModel.hasEnums) {
-                    codegenModel = this.reconcileInlineEnums(codegenModel, parentCodegenModel);
+                    codegenModel = this.reconcileInlineEnums(codegenModel, parent);
                 }
 
                 Map<String, CodegenProperty> propertyHash = new HashMap<>(codegenModel.vars.size());
@@ -353,7 +548,7 @@ public class UnityGenerator extends AbstractCSharpCodegen {
                 for (final CodegenProperty property : parentCodegenModel.vars) {
                     // helper list of parentVars simplifies templating
                     if (!propertyHash.containsKey(property.name)) {
-                        final CodegenProperty parentVar = property.clone();
+                        final CodegenProperty parentVar = copyProperty(property);
                         parentVar.isInherited = true;
                         parentVar.hasMore = true;
                         last = parentVar;
@@ -370,19 +565,123 @@ public class UnityGenerator extends AbstractCSharpCodegen {
 
         // Cleanup possible duplicates. Currently, readWriteVars can contain the same property twice. May or may not be isolated to C#.
         if (codegenModel != null && codegenModel.readWriteVars != null && codegenModel.readWriteVars.size() > 1) {
-            int length = codegenModel.readWriteVars.size() - 1;
-            for (int i = length; i > (length / 2); i--) {
-                final CodegenProperty codegenProperty = codegenModel.readWriteVars.get(i);
-                // If the property at current index is found earlier in the list, remove this last instance.
-                if (codegenModel.readWriteVars.indexOf(codegenProperty) < i) {
-                    codegenModel.readWriteVars.remove(i);
+            // CodegenProperty.hashCode covers fields equals ignores (e.g. hasMore), so hash by name and compare with equals
+            final Map<String, List<CodegenProperty>> seen = new HashMap<String, List<CodegenProperty>>();
+            final List<CodegenProperty> readWriteVars = new ArrayList<CodegenProperty>(codegenModel.readWriteVars.size());
+            for (final CodegenProperty codegenProperty : codegenModel.readWriteVars) {
+                List<CodegenProperty> sameName = seen.get(codegenProperty.name);
+                if (sameName == null) {
+                    sameName = new ArrayList<CodegenProperty>(1);
+                    seen.put(codegenProperty.name, sameName);
                 }
+                // Keep the first instance of each property.
+                if (!sameName.contains(codegenProperty)) {
+                    sameName.add(codegenProperty);
+                    readWriteVars.add(codegenProperty);
+                }
+            }
+            if (readWriteVars.size() < codegenModel.readWriteVars.size()) {
+                codegenModel.readWriteVars = readWriteVars;
             }
         }
 
         return codegenModel;
     }
 
+    /**
+     * Copies a property of a cached parent model for one child. {@link CodegenProperty#clone()} only copies the
+     * outermost maps, so the maps and lists they hold and the item property are copied as well, and post-processing
+     * one child leaves the parent and its other children alone.
+     */
+    private static CodegenProperty copyProperty(CodegenProperty property) {
+        final CodegenProperty copy;
+        final Map<String, Object> vendorExtensions = property.vendorExtensions;
+        if (vendorExtensions == null) {
+            copy = property.clone();
+        } else {
+            // the map may be the spec's, which is synchronized while generating on several threads
+            synchronized (vendorExtensions) {
+                copy = property.clone();
+                copy.vendorExtensions = deepCopy(vendorExtensions);
+            }
+        }
+        copy.allowableValues = deepCopy(property.allowableValues);
+        if (property.items != null) {
+            copy.items = copyProperty(property.items);
+        }
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T deepCopy(T value) {
+        if (value instanceof Map) {
+            final Map<Object, Object> copy = new LinkedHashMap<Object, Object>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put(entry.getKey(), deepCopy(entry.getValue()));
+            }
+            return (T) copy;
+        }
+        if (value instanceof List) {
+            final List<Object> copy = new ArrayList<Object>(((List<?>) value).size());
+            for (Object item : (List<?>) value) {
+                copy.add(deepCopy(item));
+            }
+            return (T) copy;
+        }
+        return value;
+    }
+
+    /**
+     * Builds the parent of a child model once per generation run. The returned model is shared by all children and
+     * by concurrent callers, so it must not be modified.
+     */
+    protected ParentModel getParentModel(String name, Model model) {
+        // a parent built from the definition of another spec with the same name is replaced
+        return parentModels.compute(name, (key, parent) -> parent != null && parent.model == model ? parent
+                : new ParentModel(model, super.fromModel(key, model)));
+    }
+
+    @Override
+    public void preprocessSwagger(Swagger swagger) {
+        super.preprocessSwagger(swagger);
+        this.swagger = swagger;
+        parentModels.clear();
+    }
+
+    @Override
+    @SuppressWarnings({ "unchecked" })
+    public Map<String, Object> postProcessAllModels(Map<String, Object> objs) {
+        final Map<String, Object> processed = super.postProcessAllModels(objs);
+        if (jsonConverters && swagger != null) {
+            // enum refs are only known to be enums after the post processing above
+            Map<String, Boolean> converterModels = JsonConverterExpressions.converterModels(swagger.getDefinitions(),
+                    this);
+            Set<String> enumModels = new HashSet<String>();
+            for (Map.Entry<String, Boolean> entry : converterModels.entrySet()) {
+                if (entry.getValue()) {
+                    enumModels.add(entry.getKey());
+                }
+            }
+            JsonConverterExpressions expressions = new JsonConverterExpressions(converterModels.keySet(), enumModels);
+            for (Object models : processed.values()) {
+                for (Object mo : (List<Object>) ((Map<String, Object>) models).get("models")) {
+                    expressions.process((CodegenModel) ((Map<String, Object>) mo).get("model"));
+                }
+            }
+        }
+        return processed;
+    }
+
+    @Override
+    public Map<String, Object> postProcessSupportingFileData(Map<String, Object> objs) {
+        if (jsonConverters && swagger != null) {
+            // listed from the spec, as only the processed models are complete when regenerating from a spec diff
+            objs.put("jsonConverterModels", new ArrayList<String>(
+                    JsonConverterExpressions.converterModels(swagger.getDefinitions(), this).keySet()));
+        }
+        return super.postProcessSupportingFileData(objs);
+    }
+
     public void setOptionalProjectFileFlag(boolean flag) {
         this.optionalProjectFileFlag = flag;
     }
@@ -391,6 +690,73 @@ public class UnityGenerator extends AbstractCSharpCodegen {
         this.packageGuid = packageGuid;
     }
 
+    public boolean isIncrementalGeneration() {
+        return incrementalGeneration;
+    }
+
+    public void setIncrementalGeneration(boolean incrementalGeneration) {
+        this.incrementalGeneration = incrementalGeneration;
+    }
+
+    public int getGenerationThreads() {
+        return generationThreads;
+    }
+
+    public void setGenerationThreads(int generationThreads) {
+        this.generationThreads = generationThreads;
+    }
+
+    public boolean isSpecDiffGeneration() {
+        return specDiffGeneration;
+    }
+
+    public void setSpecDiffGeneration(boolean specDiffGeneration) {
+        this.specDiffGeneration = specDiffGeneration;
+    }
+
+    public boolean isGenerationMetrics() {
+        return generationMetrics;
+    }
+
+    public void setGenerationMetrics(boolean generationMetrics) {
+        this.generationMetrics = generationMetrics;
+    }
+
+    public boolean isJsonConverters() {
+        return jsonConverters;
+    }
+
+    public void setJsonConverters(boolean jsonConverters) {
+        this.jsonConverters = jsonConverters;
+    }
+
+    public boolean isTaskAsync() {
+        return taskAsync;
+    }
+
+    public void setTaskAsync(boolean taskAsync) {
+        this.taskAsync = taskAsync;
+    }
+
+    public boolean isHttpClientTransport() {
+        return httpClientTransport;
+    }
+
+    public void setHttpClientTransport(boolean httpClientTransport) {
+        this.httpClientTransport = httpClientTransport;
+    }
+
+    public GenerationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @param metrics Metrics the models and operations are timed into, {@link GenerationMetrics#DISABLED} for none.
+     */
+    public void setMetrics(GenerationMetrics metrics) {
+        this.metrics = metrics != null ? metrics : GenerationMetrics.DISABLED;
+    }
+
     @Override
     public void postProcessParameter(CodegenParameter parameter) {
         postProcessPattern(parameter.pattern, parameter.vendorExtensions);
@@ -440,7 +806,38 @@ public class UnityGenerator extends AbstractCSharpCodegen {
         }
     }
 
-    private CodegenModel reconcileInlineEnums(CodegenModel codegenModel, CodegenModel parentCodegenModel) {
+    protected static class ParentModel {
+        final Model model;
+        final CodegenModel codegenModel;
+        // enum vars of the parent by signature, CodegenProperty.equals requires equal name and datatype
+        final Map<String, List<CodegenProperty>> enumVars = new HashMap<String, List<CodegenProperty>>();
+
+        ParentModel(Model model, CodegenModel codegenModel) {
+            this.model = model;
+            this.codegenModel = codegenModel;
+            for (CodegenProperty var : codegenModel.vars) {
+                if (var.isEnum) {
+                    List<CodegenProperty> sameSignature = enumVars.get(enumSignature(var));
+                    if (sameSignature == null) {
+                        sameSignature = new ArrayList<CodegenProperty>(1);
+                        enumVars.put(enumSignature(var), sameSignature);
+                    }
+                    sameSignature.add(var);
+                }
+            }
+        }
+
+        static String enumSignature(CodegenProperty var) {
+            return var.name + '\u0000' + var.datatype;
+        }
+
+        boolean hasEnum(CodegenProperty var) {
+            List<CodegenProperty> sameSignature = enumVars.get(enumSignature(var));
+            return sameSignature != null && sameSignature.contains(var);
+        }
+    }
+
+    private CodegenModel reconcileInlineEnums(CodegenModel codegenModel, ParentModel parent) {
         // This generator uses inline classes to define enums, which breaks when
         // dealing with models that have subTypes. To clean this up, we will analyze
         // the parent and child models, look for enums that match, and remove
@@ -448,29 +845,21 @@ public class UnityGenerator extends AbstractCSharpCodegen {
         // Because the child models extend the parents, the enums will be available via the parent.
 
         // Only bother with reconciliation if the parent model has enums.
-        if (parentCodegenModel.hasEnums) {
+        if (parent.codegenModel.hasEnums && !parent.enumVars.isEmpty()) {
 
-            // Get the properties for the parent and child models
-            final List<CodegenProperty> parentModelCodegenProperties = parentCodegenModel.vars;
+            // Get the properties for the child model
             List<CodegenProperty> codegenProperties = codegenModel.vars;
 
-            // Iterate over all of the parent model properties
+            // Look up each child enum among the parent enums with the same signature
             boolean removedChildEnum = false;
-            for (CodegenProperty parentModelCodegenPropery : parentModelCodegenProperties) {
-                // Look for enums
-                if (parentModelCodegenPropery.isEnum) {
-                    // Now that we have found an enum in the parent class,
-                    // and search the child class for the same enum.
-                    Iterator<CodegenProperty> iterator = codegenProperties.iterator();
-                    while (iterator.hasNext()) {
-                        CodegenProperty codegenProperty = iterator.next();
-                        if (codegenProperty.isEnum && codegenProperty.equals(parentModelCodegenPropery)) {
-                            // We found an enum in the child class that is
-                            // a duplicate of the one in the parent, so remove it.
-                            iterator.remove();
-                            removedChildEnum = true;
-                        }
-                    }
+            Iterator<CodegenProperty> iterator = codegenProperties.iterator();
+            while (iterator.hasNext()) {
+                CodegenProperty codegenProperty = iterator.next();
+                if (codegenProperty.isEnum && parent.hasEnum(codegenProperty)) {
+                    // We found an enum in the child class that is
+                    // a duplicate of the one in the parent, so remove it.
+                    iterator.remove();
+                    removedChildEnum = true;
                 }
             }
 
@@ -490,6 +879,10 @@ public class UnityGenerator extends AbstractCSharpCodegen {
 
     @Override
     public String toEnumVarName(String value, String datatype) {
+        return enumVarNames.get(datatype + '\u0000' + value, key -> convertEnumVarName(value, datatype));
+    }
+
+    protected String convertEnumVarName(String value, String datatype) {
         if (value.length() == 0) {
             return "Empty";
         }
@@ -503,19 +896,19 @@ public class UnityGenerator extends AbstractCSharpCodegen {
         if (datatype.startsWith("int") || datatype.startsWith("long") || datatype.startsWith("double")
                 || datatype.startsWith("float")) {
             String varName = "NUMBER_" + value;
-            varName = varName.replaceAll("-", "MINUS_");
-            varName = varName.replaceAll("\\+", "PLUS_");
-            varName = varName.replaceAll("\\.", "_DOT_");
+            varName = MINUS.matcher(varName).replaceAll("MINUS_");
+            varName = PLUS.matcher(varName).replaceAll("PLUS_");
+            varName = DOT.matcher(varName).replaceAll("_DOT_");
             return varName;
         }
 
         // string
-        String var = value.replaceAll("_", " ");
+        String var = value.replace('_', ' ');
         //var = WordUtils.capitalizeFully(var);
         var = camelize(var);
-        var = var.replaceAll("\\W+", "");
+        var = NON_WORD_CHARACTERS.matcher(var).replaceAll("");
 
-        if (var.matches("\\d.*")) {
+        if (STARTS_WITH_DIGIT.matcher(var).matches()) {
             return "_" + var;
         } else {
             return var;
@@ -523,19 +916,19 @@ public class UnityGenerator extends AbstractCSharpCodegen {
     }
 
     @Override
-    public String toVarName(String name) {
+    protected String convertVarName(String name) {
         // sanitize name
         name = sanitizeName(name);
 
         // if it's all uppper case, do nothing
-        if (name.matches("^[A-Z_]*$")) {
+        if (UPPER_CASE_NAME.matcher(name).matches()) {
             return name;
         }
 
         name = getNameUsingModelPropertyNaming(name);
 
         // for reserved word or word starting with number, append _
-        if (isReservedWord(name) || name.matches("^\\d.*")) {
+        if (isReservedWord(name) || STARTS_WITH_DIGIT.matcher(name).matches()) {
             name = escapeReservedWord(name);
         }
 